@@ -0,0 +1,211 @@
+// Project: Retirement Simulator
+// Package: batch
+
+package batch;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+/**
+ * Headless entry point: evaluates scenario files without the GUI.
+ *
+ * Usage:
+ * <pre>
+ *   java -cp RetirementPlan.jar batch.BatchRunner input.csv [output.csv]
+ *   java -cp RetirementPlan.jar batch.BatchRunner input.bin [output.csv]
+ * </pre>
+ * Files ending in ".bin" are read as binary records, anything else as CSV
+ * (see {@link Scenario} for both formats). Results go to the output file or
+ * standard output as {@code line,function,result}.
+ *
+ * The input is streamed in chunks of {@link #CHUNK_ROWS} rows. Each chunk
+ * is parsed and evaluated in parallel, then written in input order, so
+ * memory use does not grow with the file and the output order is stable.
+ * A bad row becomes {@code line,ERROR,message} (the same messages the GUI
+ * shows) and the run continues.
+ */
+public class BatchRunner {
+
+    static final int CHUNK_ROWS = 8192;
+
+    private static final int READ_BUFFER_BYTES = 1 << 20;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: BatchRunner <input.csv|input.bin> [output.csv]");
+            System.exit(2);
+        }
+        Path input = Path.of(args[0]);
+        boolean binary = args[0].endsWith(".bin");
+
+        long start = System.nanoTime();
+        long[] counts;
+        try (Writer out = (args.length == 2)
+                ? Files.newBufferedWriter(Path.of(args[1]), StandardCharsets.UTF_8)
+                : new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))) {
+            counts = binary ? runBinary(input, out) : runCsv(input, out);
+        }
+        System.err.printf("Processed %,d rows (%,d errors) in %,d ms%n",
+                counts[0], counts[1], (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Evaluates a CSV scenario file. Blank lines, lines starting with '#'
+     * and a leading "function,..." header are skipped.
+     *
+     * @return {rows evaluated, rows with errors}
+     * @throws IOException if the input cannot be read or the output written
+     */
+    public static long[] runCsv(Path input, Writer out) throws IOException {
+        String[] lines = new String[CHUNK_ROWS];
+        long[] lineNumbers = new long[CHUNK_ROWS];
+        String[] results = new String[CHUNK_ROWS];
+        LongAdder errors = new LongAdder();
+        long rows = 0;
+        long lineNumber = 0;
+
+        out.write("line,function,result\n");
+        try (BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8)) {
+            boolean more = true;
+            while (more) {
+                int count = 0;
+                String line;
+                while (count < CHUNK_ROWS && (line = reader.readLine()) != null) {
+                    lineNumber++;
+                    String trimmed = line.trim();
+                    if (trimmed.isEmpty() || trimmed.startsWith("#")
+                            || (lineNumber == 1 && trimmed.startsWith("function"))) {
+                        continue;
+                    }
+                    lines[count] = line;
+                    lineNumbers[count] = lineNumber;
+                    count++;
+                }
+                more = (count == CHUNK_ROWS);
+
+                IntStream.range(0, count).parallel().forEach(i ->
+                        results[i] = evaluateCsv(lineNumbers[i], lines[i], errors));
+                for (int i = 0; i < count; i++) {
+                    out.write(results[i]);
+                    out.write('\n');
+                }
+                rows += count;
+            }
+        }
+        return new long[] {rows, errors.sum()};
+    }
+
+    /**
+     * Evaluates a binary scenario file. Records are numbered from 1. A bad
+     * function code means the rest of the file cannot be framed, so it is
+     * reported and reading stops; bad values in a well-formed record are
+     * reported and skipped like bad CSV rows.
+     *
+     * @return {records evaluated, records with errors}
+     * @throws IOException if the input cannot be read or the output written
+     */
+    public static long[] runBinary(Path input, Writer out) throws IOException {
+        Scenario[] scenarios = new Scenario[CHUNK_ROWS];
+        String[] results = new String[CHUNK_ROWS];
+        LongAdder errors = new LongAdder();
+        long rows = 0;
+
+        out.write("line,function,result\n");
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_BYTES);
+            boolean eof = false;
+            boolean framingLost = false;
+            while (!framingLost) {
+                int count = 0;
+                String framingError = null;
+                while (true) {
+                    buffer.flip();
+                    try {
+                        Scenario scenario;
+                        while (count < CHUNK_ROWS && (scenario = Scenario.readBinary(buffer)) != null) {
+                            scenarios[count++] = scenario;
+                        }
+                    } catch (IllegalArgumentException e) {
+                        framingError = (rows + count + 1) + ",ERROR,Error: " + sanitize(e.getMessage());
+                    }
+                    buffer.compact();
+                    if (framingError != null || count == CHUNK_ROWS || eof) {
+                        break;
+                    }
+                    if (!buffer.hasRemaining()) {
+                        // A single record is larger than the buffer: grow it
+                        ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+                        buffer.flip();
+                        buffer = larger.put(buffer);
+                    }
+                    eof = channel.read(buffer) < 0;
+                }
+
+                final int evaluated = count;
+                final long firstRecord = rows + 1;
+                IntStream.range(0, evaluated).parallel().forEach(i ->
+                        results[i] = evaluate(firstRecord + i, scenarios[i], errors));
+                for (int i = 0; i < evaluated; i++) {
+                    out.write(results[i]);
+                    out.write('\n');
+                }
+                rows += evaluated;
+
+                if (framingError != null) {
+                    out.write(framingError);
+                    out.write('\n');
+                    errors.increment();
+                    rows++;
+                    framingLost = true;
+                } else if (count < CHUNK_ROWS) {
+                    if (buffer.position() > 0) {
+                        out.write((rows + 1) + ",ERROR,Error: truncated record at end of file\n");
+                        errors.increment();
+                        rows++;
+                    }
+                    break;
+                }
+            }
+        }
+        return new long[] {rows, errors.sum()};
+    }
+
+    // Mirrors the GUI handlers: number errors first, then simulator validation errors
+    private static String evaluateCsv(long lineNumber, String line, LongAdder errors) {
+        try {
+            return evaluate(lineNumber, Scenario.parseCsv(line), errors);
+        } catch (NumberFormatException e) {
+            errors.increment();
+            return lineNumber + ",ERROR,Invalid input: numbers only";
+        } catch (IllegalArgumentException e) {
+            errors.increment();
+            return lineNumber + ",ERROR,Error: " + sanitize(e.getMessage());
+        }
+    }
+
+    private static String evaluate(long lineNumber, Scenario scenario, LongAdder errors) {
+        try {
+            double result = scenario.evaluate();
+            return lineNumber + "," + scenario.getFunction().label() + "," + scenario.format(result);
+        } catch (IllegalArgumentException | ArithmeticException e) {
+            errors.increment();
+            return lineNumber + ",ERROR,Error: " + sanitize(e.getMessage());
+        }
+    }
+
+    // Keep error messages to a single CSV field
+    private static String sanitize(String message) {
+        return message == null ? "" : message.replace(',', ';').replace('\n', ' ');
+    }
+}
@@ -0,0 +1,246 @@
+// Project: Retirement Simulator
+// Package: batch
+
+package batch;
+
+import java.nio.ByteBuffer;
+import java.nio.BufferUnderflowException;
+
+import metrics.InstrumentedSimulator;
+import model.AnalyticSimulator;
+import model.RetirementSimulator;
+
+/**
+ * One row of a batch job: which simulator function to call and its inputs.
+ *
+ * CSV rows (rates as decimals, variable rates separated by ';'):
+ * <pre>
+ *   fixedInvestor,principal,rate,years
+ *   variableInvestor,principal,rate1;rate2;...
+ *   finallyRetired,balance,withdrawal,rate
+ *   maximumExpensed,principal,rate,years
+ * </pre>
+ * Binary records (big-endian) start with a function code byte:
+ * <pre>
+ *   1 fixedInvestor     double principal, double rate, int years
+ *   2 variableInvestor  double principal, int count, double rates[count]
+ *   3 finallyRetired    double balance, double withdrawal, double rate
+ *   4 maximumExpensed   double principal, double rate, int years
+ * </pre>
+ */
+public final class Scenario {
+
+    /** The four functions of {@link RetirementSimulator}. */
+    public enum Function {
+        FIXED_INVESTOR("fixedInvestor", 1),
+        VARIABLE_INVESTOR("variableInvestor", 2),
+        FINALLY_RETIRED("finallyRetired", 3),
+        MAXIMUM_EXPENSED("maximumExpensed", 4);
+
+        private final String label;
+        private final int code;
+
+        Function(String label, int code) {
+            this.label = label;
+            this.code = code;
+        }
+
+        /** @return Method name used in CSV rows and output */
+        public String label() {
+            return label;
+        }
+
+        /** @return Code byte used in binary records */
+        public int code() {
+            return code;
+        }
+
+        /**
+         * @throws IllegalArgumentException if the name is not a simulator function
+         */
+        public static Function fromLabel(String label) {
+            for (Function f : values()) {
+                if (f.label.equals(label)) {
+                    return f;
+                }
+            }
+            throw new IllegalArgumentException("Unknown function: " + label);
+        }
+
+        static Function fromCode(int code) {
+            for (Function f : values()) {
+                if (f.code == code) {
+                    return f;
+                }
+            }
+            throw new IllegalArgumentException("Unknown function code: " + code);
+        }
+    }
+
+    private final Function function;
+    private final double principal;     // balance for finallyRetired
+    private final double rate;
+    private final int years;
+    private final double withdrawal;
+    private final double[] rates;
+
+    private Scenario(Function function, double principal, double rate, int years,
+                     double withdrawal, double[] rates) {
+        this.function = function;
+        this.principal = principal;
+        this.rate = rate;
+        this.years = years;
+        this.withdrawal = withdrawal;
+        this.rates = rates;
+    }
+
+    public static Scenario fixedInvestor(double principal, double rate, int years) {
+        return new Scenario(Function.FIXED_INVESTOR, principal, rate, years, 0.0, null);
+    }
+
+    public static Scenario variableInvestor(double principal, double[] ratesList) {
+        return new Scenario(Function.VARIABLE_INVESTOR, principal, 0.0, 0, 0.0, ratesList);
+    }
+
+    public static Scenario finallyRetired(double startingBalance, double annualWithdrawal, double interestRate) {
+        return new Scenario(Function.FINALLY_RETIRED, startingBalance, interestRate, 0, annualWithdrawal, null);
+    }
+
+    public static Scenario maximumExpensed(double principal, double rate, int years) {
+        return new Scenario(Function.MAXIMUM_EXPENSED, principal, rate, years, 0.0, null);
+    }
+
+    public Function getFunction() {
+        return function;
+    }
+
+    /**
+     * Runs the scenario through {@link InstrumentedSimulator}, so batch jobs
+     * and the server show up in its statistics. {@code finallyRetired} uses
+     * the {@link AnalyticSimulator} closed form so a balance that never runs
+     * out returns {@link Double#POSITIVE_INFINITY} instead of hanging the batch.
+     *
+     * @return Result of the function (years as a whole number for finallyRetired)
+     * @throws IllegalArgumentException if the inputs are invalid
+     */
+    public double evaluate() {
+        switch (function) {
+            case FIXED_INVESTOR:
+                return InstrumentedSimulator.fixedInvestor(principal, rate, years);
+            case VARIABLE_INVESTOR:
+                return InstrumentedSimulator.variableInvestor(principal, rates);
+            case FINALLY_RETIRED:
+                int duration = InstrumentedSimulator.finallyRetiredClosedForm(principal, withdrawal, rate);
+                return duration == AnalyticSimulator.NEVER_DEPLETES ? Double.POSITIVE_INFINITY : duration;
+            default:
+                return InstrumentedSimulator.maximumExpensed(principal, rate, years);
+        }
+    }
+
+    /**
+     * Same as {@link #evaluate()} but through the closed forms of
+     * {@link AnalyticSimulator}, so the cost never depends on the number of
+     * years asked for. Only variableInvestor stays O(n), in the length of its
+     * own rates list. Results agree with {@link #evaluate()} to within a cent.
+     *
+     * @return Result of the function (years as a whole number for finallyRetired)
+     * @throws IllegalArgumentException if the inputs are invalid
+     */
+    public double evaluateClosedForm() {
+        switch (function) {
+            case FIXED_INVESTOR:
+                return InstrumentedSimulator.fixedInvestorClosedForm(principal, rate, years);
+            case MAXIMUM_EXPENSED:
+                return InstrumentedSimulator.maximumExpensedClosedForm(principal, rate, years);
+            default:
+                return evaluate();
+        }
+    }
+
+    /**
+     * Formats a result of {@link #evaluate()}: a whole number of years (or
+     * "never") for finallyRetired, full precision otherwise.
+     */
+    public String format(double result) {
+        if (function == Function.FINALLY_RETIRED) {
+            return Double.isInfinite(result) ? "never" : Long.toString((long) result);
+        }
+        return Double.toString(result);
+    }
+
+    /**
+     * Parses one CSV row.
+     *
+     * @param line Row without line terminator
+     * @return Parsed scenario
+     * @throws NumberFormatException    if a numeric field is not a number
+     * @throws IllegalArgumentException if the function or field count is wrong
+     */
+    public static Scenario parseCsv(String line) {
+        String[] fields = line.split(",", -1);
+        Function function = Function.fromLabel(fields[0].trim());
+        int expected = (function == Function.VARIABLE_INVESTOR) ? 3 : 4;
+        if (fields.length != expected) {
+            throw new IllegalArgumentException(function.label() + " expects " + (expected - 1) + " fields.");
+        }
+        switch (function) {
+            case FIXED_INVESTOR:
+                return fixedInvestor(number(fields[1]), number(fields[2]), Integer.parseInt(fields[3].trim()));
+            case VARIABLE_INVESTOR:
+                String[] parts = fields[2].split(";");
+                double[] ratesList = new double[parts.length];
+                for (int i = 0; i < parts.length; i++) {
+                    ratesList[i] = number(parts[i]);
+                }
+                return variableInvestor(number(fields[1]), ratesList);
+            case FINALLY_RETIRED:
+                return finallyRetired(number(fields[1]), number(fields[2]), number(fields[3]));
+            default:
+                return maximumExpensed(number(fields[1]), number(fields[2]), Integer.parseInt(fields[3].trim()));
+        }
+    }
+
+    /**
+     * Reads one binary record from the buffer's current position.
+     *
+     * @param in Buffer positioned at a function code byte
+     * @return Parsed scenario, or null if the buffer ends before the record does
+     *         (the position is then left unchanged)
+     * @throws IllegalArgumentException if the code byte or rate count is invalid
+     */
+    public static Scenario readBinary(ByteBuffer in) {
+        int start = in.position();
+        try {
+            Function function = Function.fromCode(in.get());
+            switch (function) {
+                case FIXED_INVESTOR:
+                    return fixedInvestor(in.getDouble(), in.getDouble(), in.getInt());
+                case VARIABLE_INVESTOR:
+                    double principal = in.getDouble();
+                    int count = in.getInt();
+                    if (count < 0) {
+                        throw new IllegalArgumentException("Negative rate count: " + count);
+                    }
+                    if (count > in.remaining() / Double.BYTES) {
+                        in.position(start);
+                        return null;
+                    }
+                    double[] ratesList = new double[count];
+                    in.asDoubleBuffer().get(ratesList);
+                    in.position(in.position() + count * Double.BYTES);
+                    return variableInvestor(principal, ratesList);
+                case FINALLY_RETIRED:
+                    return finallyRetired(in.getDouble(), in.getDouble(), in.getDouble());
+                default:
+                    return maximumExpensed(in.getDouble(), in.getDouble(), in.getInt());
+            }
+        } catch (BufferUnderflowException e) {
+            in.position(start);
+            return null;
+        }
+    }
+
+    private static double number(String field) {
+        return Double.parseDouble(field.trim());
+    }
+}
@@ -0,0 +1,177 @@
+package gui;
+//Group Members: Bradd Codner, Leigh-Ann Cammock, Josan Williams, Rianna Shone.
+//AOA Final programming assignment.
+// File: BalanceChart.java
+
+import javax.swing.*;
+
+import java.awt.*;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+ * Balance-over-time chart for the Retirement Simulator.
+ *
+ * Background workers append points in chunks; the chart only marks itself
+ * dirty and a 60 Hz timer repaints when something changed, so a fast
+ * simulation cannot flood the event thread with repaints. Long series are
+ * drawn as one min/max bar per pixel column, so the number of draw calls
+ * is bounded by the chart width, not by the number of years.
+ */
+public class BalanceChart extends JComponent {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int FRAME_MILLIS = 16;   // ~60 fps
+    private static final int MARGIN = 40;
+    private static final Color[] COLORS = {
+        new Color(0x1f77b4), new Color(0xff7f0e), new Color(0x2ca02c), new Color(0xd62728)
+    };
+
+    // One growable series per function, in the order they were first shown
+    private final Map<String, Series> series = new LinkedHashMap<>();
+    private boolean dirty;
+
+    public BalanceChart() {
+        setPreferredSize(new Dimension(720, 260));
+        setBorder(BorderFactory.createTitledBorder("Balance over time"));
+        new Timer(FRAME_MILLIS, e -> {
+            if (dirty) {
+                dirty = false;
+                repaint();
+            }
+        }).start();
+    }
+
+    // Clears (or creates) a series before a new calculation streams into it. EDT only.
+    public void startSeries(String name) {
+        Series s = series.get(name);
+        if (s == null) {
+            s = new Series(COLORS[series.size() % COLORS.length]);
+            series.put(name, s);
+        }
+        s.size = 0;
+        s.min = 0.0;
+        s.max = 1.0;
+        dirty = true;
+    }
+
+    // Appends balances, one every `stride` years, to a series. EDT only.
+    public void append(String name, double[] chunk, int length, int stride) {
+        Series s = series.get(name);
+        if (s == null) {
+            return;
+        }
+        s.stride = stride;
+        if (s.size + length > s.values.length) {
+            s.values = Arrays.copyOf(s.values, Math.max(s.size + length, s.values.length * 2));
+        }
+        System.arraycopy(chunk, 0, s.values, s.size, length);
+        s.size += length;
+        for (int i = 0; i < length; i++) {
+            if (!Double.isInfinite(chunk[i]) && !Double.isNaN(chunk[i])) {
+                s.min = Math.min(s.min, chunk[i]);
+                s.max = Math.max(s.max, chunk[i]);
+            }
+        }
+        dirty = true;
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Graphics2D g2 = (Graphics2D) g.create();
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+
+        Insets in = getInsets();
+        int left = in.left + MARGIN;
+        int top = in.top + 8;
+        int width = getWidth() - left - in.right - 10;
+        int height = getHeight() - top - in.bottom - 24;
+        if (width <= 0 || height <= 0) {
+            g2.dispose();
+            return;
+        }
+
+        // Shared axes: longest series on x, largest |balance| on y
+        long maxYears = 1;
+        double maxValue = 1.0;
+        double minValue = 0.0;
+        for (Series s : series.values()) {
+            maxYears = Math.max(maxYears, (long) (s.size - 1) * s.stride);
+            maxValue = Math.max(maxValue, s.max);
+            minValue = Math.min(minValue, s.min);
+        }
+        double range = maxValue - minValue;
+
+        g2.setColor(Color.GRAY);
+        g2.drawLine(left, top + height, left + width, top + height);
+        g2.drawLine(left, top, left, top + height);
+        g2.drawString(String.format("$%,.0f", maxValue), in.left + 2, top + 10);
+        g2.drawString("0", left - 10, top + height + 14);
+        g2.drawString(maxYears + " yrs", left + width - 40, top + height + 14);
+
+        int legendX = left + 10;
+        for (Map.Entry<String, Series> entry : series.entrySet()) {
+            Series s = entry.getValue();
+            g2.setColor(s.color);
+            drawSeries(g2, s, left, top, width, height, maxYears, minValue, range);
+            g2.drawString(entry.getKey(), legendX, top + 12);
+            legendX += g2.getFontMetrics().stringWidth(entry.getKey()) + 16;
+        }
+        g2.dispose();
+    }
+
+    // Min/max per pixel column: draw calls stay bounded however long the series is
+    private static void drawSeries(Graphics2D g2, Series s, int left, int top, int width, int height,
+                                   long maxYears, double minValue, double range) {
+        if (s.size < 2) {
+            return;
+        }
+        int prevX = -1;
+        int prevY = 0;
+        int i = 0;
+        while (i < s.size) {
+            int x = left + (int) ((long) i * s.stride * width / maxYears);
+            double lo = s.values[i];
+            double hi = lo;
+            int j = i + 1;
+            while (j < s.size && left + (int) ((long) j * s.stride * width / maxYears) == x) {
+                lo = Math.min(lo, s.values[j]);
+                hi = Math.max(hi, s.values[j]);
+                j++;
+            }
+            int yLo = toY(lo, top, height, minValue, range);
+            int yHi = toY(hi, top, height, minValue, range);
+            if (prevX >= 0) {
+                g2.drawLine(prevX, prevY, x, yHi);
+            }
+            g2.drawLine(x, yHi, x, yLo);
+            prevX = x;
+            prevY = toY(s.values[j - 1], top, height, minValue, range);
+            i = j;
+        }
+    }
+
+    // Overflowed (infinite) balances are pinned to the top edge
+    private static int toY(double value, int top, int height, double minValue, double range) {
+        double fraction = (value - minValue) / range;
+        if (!(fraction <= 1.0)) {
+            fraction = 1.0;
+        }
+        return top + height - (int) (Math.max(0.0, fraction) * height);
+    }
+
+    private static final class Series {
+        final Color color;
+        double[] values = new double[64];
+        int size;
+        int stride = 1;
+        double min;
+        double max = 1.0;
+
+        Series(Color color) {
+            this.color = color;
+        }
+    }
+}
@@ -4,14 +4,31 @@ package gui;
 // File: RetirementSimulatorGUI.java
 
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 
 //Imports The class containing the implemented functions
-import model.RetirementSimulator;
+import metrics.InstrumentedSimulator;
+import model.AnalyticSimulator;
 
 import java.awt.*;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
 
 /*
  * Presentation layer for the Retirement Simulator application.
+ *
+ * Calculations run on background SwingWorkers so the window stays
+ * responsive: each one computes its result in the same loop that streams
+ * the balance path into the chart, so it can be cancelled at any year, and
+ * is cancelled when the same function is started again. The progress bar
+ * shows the combined progress of every running calculation.
+ * Every simulator call goes through InstrumentedSimulator, one call per
+ * charted year for the two growth functions.
+ * Editing a field recalculates its function after a short pause.
  */
 //GUI builder 
 public class RetirementSimulatorGUI extends JFrame {
@@ -48,21 +65,38 @@ public class RetirementSimulatorGUI extends JFrame {
     private final JTextField optYearsField = new JTextField("30", 4);
     private final JLabel optimizationResultLabel = new JLabel("Optimization: (not calculated)");
 
+    // Background calculations
+    private static final int DEBOUNCE_MILLIS = 300;      // pause after typing before recalculating
+    private static final int CHART_CHUNK = 4096;         // points per publish() to the chart
+    private static final long MAX_CHART_POINTS = 1_000_000;
+    private static final int NEVER_DEPLETES_PREVIEW = 100; // years charted when money never runs out
+
+    private final BalanceChart chart = new BalanceChart();
+    private final JProgressBar progressBar = new JProgressBar(0, 100);
+    private final Map<String, CalculationWorker> running = new HashMap<>();
+
 	// Constructor to set up the GUI
     public RetirementSimulatorGUI() {
         super("Retirement Simulator - Minimal GUI");
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setLayout(new BorderLayout(8, 8));
 
-        JPanel mainPanel = new JPanel(new GridLayout(5, 1, 6, 6));
+        JPanel mainPanel = new JPanel(new GridLayout(4, 1, 6, 6));
         mainPanel.add(createFixedPanel());
         mainPanel.add(createVariablePanel());
         mainPanel.add(createDepletionPanel());
         mainPanel.add(createOptimizationPanel());
 
-        add(mainPanel, BorderLayout.CENTER);
+        add(mainPanel, BorderLayout.NORTH);
+        add(chart, BorderLayout.CENTER);
         add(createControlPanel(), BorderLayout.SOUTH);
 
+        // Recalculate a function shortly after any of its fields change
+        debounce(this::onCalculateFixed, fixedPrincipalField, fixedRateField, fixedYearsField);
+        debounce(this::onCalculateVariable, variablePrincipalField, fixedRateField, variableRateField, variableYearsField);
+        debounce(this::onCalculateDepletion, depletionBalanceField, depletionWithdrawField, depletionRateField);
+        debounce(this::onCalculateOptimization, optBalanceField, optRateField, optYearsField);
+
         pack();
         setLocationRelativeTo(null);
     }
@@ -138,9 +172,11 @@ public class RetirementSimulatorGUI extends JFrame {
     }
 
 
-	// Control Panel with Calculate All and Close buttons 
+	// Control Panel with progress, Calculate All, Cancel and Close buttons 
     private JPanel createControlPanel() {
         JPanel panel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        progressBar.setStringPainted(true);
+        panel.add(progressBar);
         JButton calculateAll = new JButton("Calculate All");
         calculateAll.addActionListener(e -> {		//button used to simulate function call
             onCalculateFixed();
@@ -148,9 +184,16 @@ public class RetirementSimulatorGUI extends JFrame {
             onCalculateDepletion();
             onCalculateOptimization();
         });
+        JButton cancel = new JButton("Cancel");
+        cancel.addActionListener(e -> {	//stops every running calculation
+            for (CalculationWorker worker : running.values().toArray(new CalculationWorker[0])) {
+                worker.cancel(true);
+            }
+        });
         JButton close = new JButton("Close");
         close.addActionListener(e -> dispose());//closes the GUI
         panel.add(calculateAll);
+        panel.add(cancel);
         panel.add(close);
         return panel;
     }
@@ -161,77 +204,270 @@ public class RetirementSimulatorGUI extends JFrame {
 
 	//Fixed Growth Calculation
     private void onCalculateFixed() {
-		//Input validation
-        try {
-            double principal = Double.parseDouble(fixedPrincipalField.getText().trim());
-            double rate = Double.parseDouble(fixedRateField.getText().trim()) / 100.0;
-            int years = Integer.parseInt(fixedYearsField.getText().trim());
-            double result = RetirementSimulator.fixedInvestor(principal, rate, years);
-            fixedResultLabel.setText(String.format("Fixed: $%,.2f", result));
-        } catch (NumberFormatException e) {
-            fixedResultLabel.setText("Invalid input: numbers only");
-        } catch (IllegalArgumentException | ArithmeticException e) {
-            fixedResultLabel.setText("Error: " + e.getMessage());
-        }
+        String principalText = fixedPrincipalField.getText().trim();
+        String rateText = fixedRateField.getText().trim();
+        String yearsText = fixedYearsField.getText().trim();
+        run(new CalculationWorker("Fixed", fixedResultLabel) {
+            @Override
+            protected String compute() {
+                //Input validation
+                double principal = Double.parseDouble(principalText);
+                double rate = Double.parseDouble(rateText) / 100.0;
+                int years = Integer.parseInt(yearsText);
+                if (years < 0) {
+                    throw new IllegalArgumentException("Years must be non-negative.");
+                }
+
+                // The model one year at a time: same result, but cancellable and charted as it goes
+                startPath(years);
+                double futureValue = InstrumentedSimulator.fixedInvestor(principal, rate, 0);   // validates
+                point(0, futureValue);
+                for (int year = 1; year <= years && !isCancelled(); year++) {
+                    futureValue = InstrumentedSimulator.fixedInvestor(futureValue, rate, 1);
+                    point(year, futureValue);
+                }
+                return String.format("Fixed: $%,.2f", futureValue);
+            }
+        });
     }
 
 	//Variable Growth Calculation
     private void onCalculateVariable() {
-        try {
-            double principal = Double.parseDouble(variablePrincipalField.getText().trim());
-            double baseRate = Double.parseDouble(fixedRateField.getText().trim()) / 100.0;
-            double increment = Double.parseDouble(variableRateField.getText().trim()) / 100.0;
-            int years = Integer.parseInt(variableYearsField.getText().trim());
+        String principalText = variablePrincipalField.getText().trim();
+        String baseRateText = fixedRateField.getText().trim();
+        String incrementText = variableRateField.getText().trim();
+        String yearsText = variableYearsField.getText().trim();
+        run(new CalculationWorker("Variable", variableResultLabel) {
+            @Override
+            protected String compute() {
+                double principal = Double.parseDouble(principalText);
+                double baseRate = Double.parseDouble(baseRateText) / 100.0;
+                double increment = Double.parseDouble(incrementText) / 100.0;
+                int years = Integer.parseInt(yearsText);
 
-            if (years <= 0) {
-                throw new IllegalArgumentException("Years must be positive.");
-            }
+                if (years <= 0) {
+                    throw new IllegalArgumentException("Years must be positive.");
+                }
 
-            // Build the per-year rates list: baseRate, baseRate+inc, baseRate+2*inc, ...
-            double[] ratesList = new double[years];
-            for (int i = 0; i < years; i++) {
-                ratesList[i] = baseRate + (i * increment);
-            }
+                // Build the per-year rates list: baseRate, baseRate+inc, baseRate+2*inc, ...
+                double[] ratesList = new double[years];
+                for (int i = 0; i < years; i++) {
+                    ratesList[i] = baseRate + (i * increment);
+                }
 
-            double result = RetirementSimulator.variableInvestor(principal, ratesList);
-            variableResultLabel.setText(String.format("Variable: $%,.2f", result));
-        } catch (NumberFormatException e) {
-            variableResultLabel.setText("Invalid input: numbers only");
-        } catch (IllegalArgumentException | ArithmeticException e) {
-            variableResultLabel.setText("Error: " + e.getMessage());
-        }
+                // The model one rate at a time, validating each as it would
+                startPath(years);
+                double[] rate = new double[1];
+                double futureValue = principal;
+                point(0, futureValue);
+                for (int i = 0; i < years && !isCancelled(); i++) {
+                    rate[0] = ratesList[i];
+                    futureValue = InstrumentedSimulator.variableInvestor(futureValue, rate);
+                    point(i + 1, futureValue);
+                }
+                return String.format("Variable: $%,.2f", futureValue);
+            }
+        });
     }
 
 	// Finally Retired Calculation
     private void onCalculateDepletion() {
-        try {
-            double startingBalance = Double.parseDouble(depletionBalanceField.getText().trim());
-            double annualWithdrawal = Double.parseDouble(depletionWithdrawField.getText().trim());
-            double rate = Double.parseDouble(depletionRateField.getText().trim()) / 100.0;
-
-            int years = RetirementSimulator.finallyRetired(startingBalance, annualWithdrawal, rate);
-
-            depletionResultLabel.setText("Depletion: " + years + " years");
-        } catch (NumberFormatException e) {
-            depletionResultLabel.setText("Invalid input: numbers only");
-        } catch (IllegalArgumentException | ArithmeticException e) {
-            depletionResultLabel.setText("Error: " + e.getMessage());
-        }
+        String balanceText = depletionBalanceField.getText().trim();
+        String withdrawalText = depletionWithdrawField.getText().trim();
+        String rateText = depletionRateField.getText().trim();
+        run(new CalculationWorker("Depletion", depletionResultLabel) {
+            @Override
+            protected String compute() {
+                double startingBalance = Double.parseDouble(balanceText);
+                double annualWithdrawal = Double.parseDouble(withdrawalText);
+                double rate = Double.parseDouble(rateText) / 100.0;
+
+                // Closed form first: it knows when the money never runs out
+                int years = InstrumentedSimulator.finallyRetiredClosedForm(startingBalance, annualWithdrawal, rate);
+                boolean never = (years == AnalyticSimulator.NEVER_DEPLETES);
+                int charted = never ? NEVER_DEPLETES_PREVIEW : years;
+
+                startPath(charted);
+                double balance = startingBalance;
+                point(0, balance);
+                for (int year = 1; year <= charted && !isCancelled(); year++) {
+                    balance = balance + balance * rate - annualWithdrawal;
+                    point(year, balance);
+                }
+                return never ? "Depletion: never (interest covers the withdrawal)"
+                             : "Depletion: " + years + " years";
+            }
+        });
     }
 
 	//Maximum Expensed Calculation
     private void onCalculateOptimization() {
-        try {
-            double principal = Double.parseDouble(optBalanceField.getText().trim());
-            double rate = Double.parseDouble(optRateField.getText().trim()) / 100.0;
-            int years = Integer.parseInt(optYearsField.getText().trim());
-
-            double withdrawal = RetirementSimulator.maximumExpensed(principal, rate, years);
-            optimizationResultLabel.setText(String.format("Optimization: $%,.2f per year", withdrawal));
-        } catch (NumberFormatException e) {
-            optimizationResultLabel.setText("Invalid input: numbers only");
-        } catch (IllegalArgumentException | ArithmeticException e) {
-            optimizationResultLabel.setText("Error: " + e.getMessage());
+        String principalText = optBalanceField.getText().trim();
+        String rateText = optRateField.getText().trim();
+        String yearsText = optYearsField.getText().trim();
+        run(new CalculationWorker("Optimization", optimizationResultLabel) {
+            @Override
+            protected String compute() {
+                double principal = Double.parseDouble(principalText);
+                double rate = Double.parseDouble(rateText) / 100.0;
+                int years = Integer.parseInt(yearsText);
+
+                double withdrawal = InstrumentedSimulator.maximumExpensed(principal, rate, years);
+
+                // Drawdown path when withdrawing the optimal amount every year
+                startPath(years);
+                double balance = principal;
+                point(0, balance);
+                for (int year = 1; year <= years && !isCancelled(); year++) {
+                    balance = balance * (1.0 + rate) - withdrawal;
+                    point(year, balance);
+                }
+                return String.format("Optimization: $%,.2f per year", withdrawal);
+            }
+        });
+    }
+
+    // =========================
+    // Background workers
+    // =========================
+
+	// Starts a calculation, cancelling any earlier one for the same function
+    private void run(CalculationWorker worker) {
+        CalculationWorker previous = running.put(worker.series, worker);
+        if (previous != null) {
+            previous.cancel(true);
+        }
+        chart.startSeries(worker.series);
+        worker.resultLabel.setText(worker.series + ": calculating...");
+        worker.addPropertyChangeListener(evt -> {
+            if ("progress".equals(evt.getPropertyName())) {
+                updateProgress();
+            }
+        });
+        updateProgress();
+        worker.execute();
+    }
+
+	// Mean progress of the running calculations, so concurrent ones do not overwrite each other
+    private void updateProgress() {
+        if (running.isEmpty()) {
+            progressBar.setValue(100);
+            return;
+        }
+        int total = 0;
+        for (CalculationWorker worker : running.values()) {
+            total += worker.getProgress();
+        }
+        progressBar.setValue(total / running.size());
+    }
+
+	// Restarts a one-shot timer on every edit, so typing "12345" recalculates once
+    private void debounce(Runnable action, JTextField... fields) {
+        Timer timer = new Timer(DEBOUNCE_MILLIS, e -> action.run());
+        timer.setRepeats(false);
+        DocumentListener listener = new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                timer.restart();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                timer.restart();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                timer.restart();
+            }
+        };
+        for (JTextField field : fields) {
+            field.getDocument().addDocumentListener(listener);
+        }
+    }
+
+	// Runs one calculation off the event thread and streams its balance path into the chart
+    private abstract class CalculationWorker extends SwingWorker<String, double[]> {
+
+        private final String series;
+        private final JLabel resultLabel;
+        private final double[] chunk = new double[CHART_CHUNK];
+        private int chunkSize;
+        private volatile int stride = 1;
+        private long lastYear = 1;
+
+        CalculationWorker(String series, JLabel resultLabel) {
+            this.series = series;
+            this.resultLabel = resultLabel;
+        }
+
+        // Background part: parse inputs, call the model, stream the path; returns the label text
+        protected abstract String compute();
+
+        // Long horizons chart one point every `stride` years to bound memory
+        protected void startPath(long years) {
+            stride = (int) Math.max(1, (years + MAX_CHART_POINTS) / MAX_CHART_POINTS);
+            lastYear = Math.max(1, years);
+        }
+
+        protected void point(long year, double balance) {
+            if (year % stride != 0) {
+                return;
+            }
+            chunk[chunkSize++] = balance;
+            if (chunkSize == chunk.length) {
+                flush();
+                setProgress((int) Math.min(100, 100 * year / lastYear));
+            }
+        }
+
+        private void flush() {
+            if (chunkSize > 0) {
+                publish(Arrays.copyOf(chunk, chunkSize));
+                chunkSize = 0;
+            }
+        }
+
+        @Override
+        protected String doInBackground() {
+            String text = compute();
+            flush();
+            return text;
+        }
+
+        @Override
+        protected void process(List<double[]> chunks) {
+            if (isCancelled()) {
+                return;     // a newer run owns the series now
+            }
+            for (double[] c : chunks) {
+                chart.append(series, c, c.length, stride);
+            }
+        }
+
+        @Override
+        protected void done() {
+            running.remove(series, this);
+            updateProgress();
+            if (isCancelled()) {
+                resultLabel.setText(series + ": cancelled");
+                return;
+            }
+            try {
+                resultLabel.setText(get());
+            } catch (ExecutionException e) {
+                // Same messages the synchronous handlers used to show
+                Throwable cause = e.getCause();
+                if (cause instanceof NumberFormatException) {
+                    resultLabel.setText("Invalid input: numbers only");
+                } else if (cause instanceof IllegalArgumentException || cause instanceof ArithmeticException) {
+                    resultLabel.setText("Error: " + cause.getMessage());
+                } else {
+                    resultLabel.setText("Error: " + cause);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
         }
     }
 
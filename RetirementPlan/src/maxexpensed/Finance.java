@@ -0,0 +1,31 @@
+package maxexpensed;
+
+import model.WithdrawalSolver;
+
+public class Finance {
+
+    // Overload for the 2-parameter signature in the brief; defaults to 30 years.
+    public static double maximumExpensed(double balance, double rate) {
+        return maximumExpensed(balance, rate, 30);
+    }
+
+    /**
+     * Find the maximum constant annual withdrawal E such that after `years`
+     * of:  B <- B*(1 + rate) - E, the final balance is approximately zero.
+     *
+     * @param balance starting retirement balance (>= 0)
+     * @param rate    annual growth rate as a decimal (e.g., 0.05 for 5%)
+     * @param years   modeled retirement period (e.g., 30)
+     * @return        optimal annual withdrawal rounded to cents
+     */
+    public static double maximumExpensed(double balance, double rate, int years) {
+        if (balance <= 0 || years <= 0) return 0.0;
+
+        // Same solver as model.RetirementSimulator, so there is one root-finder to maintain
+        return roundToCents(WithdrawalSolver.solve(balance, rate, years).getWithdrawal());
+    }
+
+    private static double roundToCents(double x) {
+        return Math.round(x * 100.0) / 100.0;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,330 @@
+// Project: Retirement Simulator
+// Package: metrics
+
+package metrics;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import model.AnalyticSimulator;
+import model.RetirementSimulator;
+
+/**
+ * Drop-in replacement for the {@link RetirementSimulator} entry points, and
+ * for the {@link AnalyticSimulator} closed forms that the server, batch jobs,
+ * GUI and {@link model.CachedSimulator} use, that records what each call did.
+ * A closed form counts as a call of the function it answers, with no loop
+ * iterations or solver steps.
+ *
+ * When instrumentation is on, every call
+ * <ul>
+ *   <li>bumps per-function counters (calls, errors, loop iterations, solver steps),</li>
+ *   <li>records its duration in a per-function {@link LatencyHistogram}, and</li>
+ *   <li>commits a {@link SimulatorEvent} with its inputs and result, if a
+ *       Flight Recorder recording has that event enabled.</li>
+ * </ul>
+ * {@link #snapshot()} returns all of it for a scraper or a log line.
+ *
+ * When it is off (the default) each method is one read of a flag followed
+ * by the plain call, which the JIT inlines; the benchmarks module measures
+ * both cases. Turn it on with {@code -Dsimulator.instrumentation=true} or
+ * {@link #setEnabled}.
+ */
+public final class InstrumentedSimulator {
+
+    /** System property that turns instrumentation on at startup. */
+    public static final String PROPERTY = "simulator.instrumentation";
+
+    private static volatile boolean enabled = Boolean.getBoolean(PROPERTY);
+
+    private static final Probe FIXED = new Probe();
+    private static final Probe VARIABLE = new Probe();
+    private static final Probe RETIRED = new Probe();
+    private static final Probe EXPENSED = new Probe();
+
+    private InstrumentedSimulator() {
+    }
+
+    /** @param on Whether calls should be counted, timed and traced */
+    public static void setEnabled(boolean on) {
+        enabled = on;
+    }
+
+    /** @return Whether instrumentation is on */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @see RetirementSimulator#fixedInvestor(double, double, int)
+     */
+    public static double fixedInvestor(double principal, double rate, int years) {
+        if (!enabled) {
+            return RetirementSimulator.fixedInvestor(principal, rate, years);
+        }
+        SimulatorEvent event = new SimulatorEvent();
+        event.begin();
+        long start = System.nanoTime();
+        try {
+            double result = RetirementSimulator.fixedInvestor(principal, rate, years);
+            FIXED.record(start, years, 0);
+            commit(event, "fixedInvestor", principal, rate, years, 0.0, result, years, 0, null);
+            return result;
+        } catch (RuntimeException e) {
+            FIXED.fail(start);
+            commit(event, "fixedInvestor", principal, rate, years, 0.0, Double.NaN, 0, 0, e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * @see RetirementSimulator#variableInvestor(double, double[])
+     */
+    public static double variableInvestor(double principal, double[] ratesList) {
+        if (!enabled) {
+            return RetirementSimulator.variableInvestor(principal, ratesList);
+        }
+        SimulatorEvent event = new SimulatorEvent();
+        event.begin();
+        long start = System.nanoTime();
+        int years = (ratesList == null) ? 0 : ratesList.length;
+        double firstRate = (years == 0) ? Double.NaN : ratesList[0];
+        try {
+            double result = RetirementSimulator.variableInvestor(principal, ratesList);
+            VARIABLE.record(start, years, 0);
+            commit(event, "variableInvestor", principal, firstRate, years, 0.0, result, years, 0, null);
+            return result;
+        } catch (RuntimeException e) {
+            VARIABLE.fail(start);
+            commit(event, "variableInvestor", principal, firstRate, years, 0.0, Double.NaN, 0, 0, e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * @see RetirementSimulator#finallyRetired(double, double, double)
+     */
+    public static int finallyRetired(double startingBalance, double annualWithdrawal, double interestRate) {
+        if (!enabled) {
+            return RetirementSimulator.finallyRetired(startingBalance, annualWithdrawal, interestRate);
+        }
+        SimulatorEvent event = new SimulatorEvent();
+        event.begin();
+        long start = System.nanoTime();
+        try {
+            int duration = RetirementSimulator.finallyRetired(startingBalance, annualWithdrawal, interestRate);
+            RETIRED.record(start, duration, 0);     // one loop pass per year survived
+            commit(event, "finallyRetired", startingBalance, interestRate, 0, annualWithdrawal,
+                    duration, duration, 0, null);
+            return duration;
+        } catch (RuntimeException e) {
+            RETIRED.fail(start);
+            commit(event, "finallyRetired", startingBalance, interestRate, 0, annualWithdrawal,
+                    Double.NaN, 0, 0, e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * @see RetirementSimulator#maximumExpensed(double, double, int)
+     */
+    public static double maximumExpensed(double principal, double rate, int years) {
+        if (!enabled) {
+            return RetirementSimulator.maximumExpensed(principal, rate, years);
+        }
+        SimulatorEvent event = new SimulatorEvent();
+        event.begin();
+        long start = System.nanoTime();
+        try {
+            // Same validation and solve as RetirementSimulator, with the step count visible
+            RetirementSimulator.Expensed solved = RetirementSimulator.maximumExpensedWithSteps(principal, rate, years);
+            double result = solved.getWithdrawal();
+            int steps = solved.getSolverSteps();
+            long iterations = (long) steps * years;
+            EXPENSED.record(start, iterations, steps);
+            commit(event, "maximumExpensed", principal, rate, years, 0.0, result, iterations, steps, null);
+            return result;
+        } catch (RuntimeException e) {
+            EXPENSED.fail(start);
+            commit(event, "maximumExpensed", principal, rate, years, 0.0, Double.NaN, 0, 0, e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * @see AnalyticSimulator#fixedInvestor(double, double, int)
+     */
+    public static double fixedInvestorClosedForm(double principal, double rate, int years) {
+        if (!enabled) {
+            return AnalyticSimulator.fixedInvestor(principal, rate, years);
+        }
+        SimulatorEvent event = new SimulatorEvent();
+        event.begin();
+        long start = System.nanoTime();
+        try {
+            double result = AnalyticSimulator.fixedInvestor(principal, rate, years);
+            FIXED.record(start, 0, 0);
+            commit(event, "fixedInvestor", principal, rate, years, 0.0, result, 0, 0, null);
+            return result;
+        } catch (RuntimeException e) {
+            FIXED.fail(start);
+            commit(event, "fixedInvestor", principal, rate, years, 0.0, Double.NaN, 0, 0, e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Unlike {@link #finallyRetired}, returns
+     * {@link AnalyticSimulator#NEVER_DEPLETES} instead of looping forever.
+     *
+     * @see AnalyticSimulator#finallyRetired(double, double, double)
+     */
+    public static int finallyRetiredClosedForm(double startingBalance, double annualWithdrawal, double interestRate) {
+        if (!enabled) {
+            return AnalyticSimulator.finallyRetired(startingBalance, annualWithdrawal, interestRate);
+        }
+        SimulatorEvent event = new SimulatorEvent();
+        event.begin();
+        long start = System.nanoTime();
+        try {
+            int duration = AnalyticSimulator.finallyRetired(startingBalance, annualWithdrawal, interestRate);
+            RETIRED.record(start, 0, 0);
+            commit(event, "finallyRetired", startingBalance, interestRate, 0, annualWithdrawal,
+                    duration, 0, 0, null);
+            return duration;
+        } catch (RuntimeException e) {
+            RETIRED.fail(start);
+            commit(event, "finallyRetired", startingBalance, interestRate, 0, annualWithdrawal,
+                    Double.NaN, 0, 0, e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * @see AnalyticSimulator#maximumExpensed(double, double, int)
+     */
+    public static double maximumExpensedClosedForm(double principal, double rate, int years) {
+        if (!enabled) {
+            return AnalyticSimulator.maximumExpensed(principal, rate, years);
+        }
+        SimulatorEvent event = new SimulatorEvent();
+        event.begin();
+        long start = System.nanoTime();
+        try {
+            double result = AnalyticSimulator.maximumExpensed(principal, rate, years);
+            EXPENSED.record(start, 0, 0);
+            commit(event, "maximumExpensed", principal, rate, years, 0.0, result, 0, 0, null);
+            return result;
+        } catch (RuntimeException e) {
+            EXPENSED.fail(start);
+            commit(event, "maximumExpensed", principal, rate, years, 0.0, Double.NaN, 0, 0, e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * @return Per-function statistics, keyed by method name in the order
+     *         fixedInvestor, variableInvestor, finallyRetired, maximumExpensed
+     */
+    public static Map<String, Stats> snapshot() {
+        Map<String, Stats> stats = new LinkedHashMap<>();
+        stats.put("fixedInvestor", FIXED.snapshot());
+        stats.put("variableInvestor", VARIABLE.snapshot());
+        stats.put("finallyRetired", RETIRED.snapshot());
+        stats.put("maximumExpensed", EXPENSED.snapshot());
+        return Collections.unmodifiableMap(stats);
+    }
+
+    private static void commit(SimulatorEvent event, String function, double principal, double rate,
+                               int years, double withdrawal, double result, long iterations,
+                               int solverSteps, String error) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.function = function;
+            event.principal = principal;
+            event.rate = rate;
+            event.years = years;
+            event.withdrawal = withdrawal;
+            event.result = result;
+            event.iterations = iterations;
+            event.solverSteps = solverSteps;
+            event.error = error;
+            event.commit();
+        }
+    }
+
+    /**
+     * Counters and latencies of one function at the time of {@link #snapshot()}.
+     */
+    public static final class Stats {
+
+        private final long calls;
+        private final long errors;
+        private final long iterations;
+        private final long solverSteps;
+        private final LatencyHistogram.Snapshot latency;
+
+        Stats(long calls, long errors, long iterations, long solverSteps, LatencyHistogram.Snapshot latency) {
+            this.calls = calls;
+            this.errors = errors;
+            this.iterations = iterations;
+            this.solverSteps = solverSteps;
+            this.latency = latency;
+        }
+
+        /** @return Calls made, including failed ones */
+        public long getCalls() {
+            return calls;
+        }
+
+        /** @return Calls that threw */
+        public long getErrors() {
+            return errors;
+        }
+
+        /** @return Total yearly loop passes over successful calls */
+        public long getIterations() {
+            return iterations;
+        }
+
+        /** @return Total ending-balance evaluations by the maximumExpensed solver */
+        public long getSolverSteps() {
+            return solverSteps;
+        }
+
+        /** @return Call durations in nanoseconds */
+        public LatencyHistogram.Snapshot getLatency() {
+            return latency;
+        }
+    }
+
+    // Striped counters and a histogram per function
+    private static final class Probe {
+        final LongAdder calls = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LongAdder iterations = new LongAdder();
+        final LongAdder solverSteps = new LongAdder();
+        final LatencyHistogram latency = new LatencyHistogram();
+
+        void record(long start, long loopIterations, int steps) {
+            latency.record(System.nanoTime() - start);
+            calls.increment();
+            iterations.add(loopIterations);
+            if (steps != 0) {
+                solverSteps.add(steps);
+            }
+        }
+
+        void fail(long start) {
+            latency.record(System.nanoTime() - start);
+            calls.increment();
+            errors.increment();
+        }
+
+        Stats snapshot() {
+            return new Stats(calls.sum(), errors.sum(), iterations.sum(), solverSteps.sum(), latency.snapshot());
+        }
+    }
+}
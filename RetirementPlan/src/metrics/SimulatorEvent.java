@@ -0,0 +1,59 @@
+// Project: Retirement Simulator
+// Package: metrics
+
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for one call to a {@link model.RetirementSimulator}
+ * function, committed by {@link InstrumentedSimulator}. Enable it with
+ * {@code -XX:StartFlightRecording} (it is on in the default settings) and
+ * read it with {@code jfr print --events aoa.SimulatorCall recording.jfr}.
+ */
+@Name("aoa.SimulatorCall")
+@Label("Simulator Call")
+@Category({"Retirement Simulator"})
+@Description("One call to a RetirementSimulator function")
+@StackTrace(false)
+final class SimulatorEvent extends Event {
+
+    @Label("Function")
+    String function;
+
+    @Label("Principal")
+    @Description("Principal, or starting balance for finallyRetired")
+    double principal;
+
+    @Label("Rate")
+    @Description("Annual rate as decimal (first year's rate for variableInvestor)")
+    double rate;
+
+    @Label("Years")
+    @Description("Horizon in years (0 for finallyRetired)")
+    int years;
+
+    @Label("Withdrawal")
+    @Description("Annual withdrawal for finallyRetired")
+    double withdrawal;
+
+    @Label("Result")
+    double result;
+
+    @Label("Loop Iterations")
+    @Description("Yearly compounding steps executed")
+    long iterations;
+
+    @Label("Solver Steps")
+    @Description("Ending-balance evaluations used by maximumExpensed")
+    int solverSteps;
+
+    @Label("Error")
+    @Description("Exception message if the call failed")
+    String error;
+}
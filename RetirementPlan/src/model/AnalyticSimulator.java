@@ -0,0 +1,212 @@
+// Project: Retirement Simulator
+// Package: model
+
+package model;
+
+/**
+ * Closed-form versions of the {@link RetirementSimulator} functions.
+ *
+ * The iterative versions replay the recurrence
+ *      B <- B * (1 + rate) - withdrawal
+ * once per year. Unrolling it gives
+ *      B_n = B * (1 + r)^n - W * ((1 + r)^n - 1) / r
+ * so compounding, depletion and the annuity payment can be answered in O(1)
+ * with {@code Math.pow}/{@code log1p}/{@code expm1}. Iteration is only used
+ * where the formula cannot decide on its own: a zero rate, or a depletion
+ * year whose balance lands within rounding noise of zero.
+ *
+ * Every method matches its iterative counterpart to within a cent.
+ */
+public class AnalyticSimulator {
+
+    /** Returned by {@link #finallyRetired} when the balance never runs out. */
+    public static final int NEVER_DEPLETES = Integer.MAX_VALUE;
+
+    // Relative size of a balance treated as "too close to zero to call"
+    private static final double AMBIGUOUS_BALANCE = 1e-9;
+
+    /**
+     * Closed-form {@link RetirementSimulator#fixedInvestor}: principal * (1 + rate)^years.
+     *
+     * Time complexity: O(1).
+     *
+     * @param principal Initial investment (must be >= 0)
+     * @param rate      Annual interest rate as decimal (e.g., 0.075 for 7.5%)
+     * @param years     Number of years (must be >= 0)
+     * @return Future value of investment
+     * @throws IllegalArgumentException if inputs are invalid
+     */
+    public static double fixedInvestor(double principal, double rate, int years) {
+        if (principal < 0) {
+            throw new IllegalArgumentException("Principal must be non-negative.");
+        }
+        if (years < 0) {
+            throw new IllegalArgumentException("Years must be non-negative.");
+        }
+        if (rate <= -1.0) {
+            throw new IllegalArgumentException("Rate cannot be less than -100%.");
+        }
+        return principal * growthFactor(rate, years);
+    }
+
+    /**
+     * Closed-form {@link RetirementSimulator#finallyRetired}. Solving B_n <= 0 for n gives
+     *      n = ceil( -ln(1 - r * B / W) / ln(1 + r) )
+     * which only exists when the withdrawal is larger than the interest earned
+     * in the first year. Otherwise the balance never shrinks and
+     * {@link #NEVER_DEPLETES} is returned instead of looping forever.
+     *
+     * Time complexity: O(1).
+     *
+     * @param startingBalance  Initial amount in the retirement account (>= 0)
+     * @param annualWithdrawal Fixed withdrawal amount each year (> 0)
+     * @param interestRate     Annual growth rate as decimal (e.g., 0.05 for 5%)
+     * @return Number of years before the account is depleted, or {@link #NEVER_DEPLETES}
+     * @throws IllegalArgumentException if inputs are invalid
+     */
+    public static int finallyRetired(double startingBalance, double annualWithdrawal, double interestRate) {
+        if (Double.isNaN(startingBalance) || Double.isInfinite(startingBalance)
+                || Double.isNaN(annualWithdrawal) || Double.isInfinite(annualWithdrawal)
+                || Double.isNaN(interestRate) || Double.isInfinite(interestRate)) {
+            throw new IllegalArgumentException("Inputs must be finite.");
+        }
+        if (startingBalance < 0) {
+            throw new IllegalArgumentException("Balance must not be a negative ");
+        }
+        if (annualWithdrawal <= 0) {
+            throw new IllegalArgumentException("Withdrawal amount must be greater than zero(0)");
+        }
+        if (interestRate <= -1.0) {
+            throw new IllegalArgumentException("Grown rate cannot be less than -100%");
+        }
+
+        if (startingBalance == 0.0) {
+            return 0;
+        }
+        // Interest covers the withdrawal: the balance never goes down
+        if (startingBalance * interestRate >= annualWithdrawal) {
+            return NEVER_DEPLETES;
+        }
+
+        double estimate = (interestRate == 0.0)
+                ? startingBalance / annualWithdrawal
+                : -Math.log1p(-interestRate * startingBalance / annualWithdrawal) / Math.log1p(interestRate);
+        if (!(estimate < NEVER_DEPLETES - 1)) {
+            return NEVER_DEPLETES;
+        }
+
+        // Nudge the estimate onto the first year whose balance is <= 0
+        int years = Math.max(1, (int) Math.ceil(estimate));
+        while (years > 1 && endBalance(startingBalance, interestRate, years - 1, annualWithdrawal) <= 0.0) {
+            years--;
+        }
+        while (endBalance(startingBalance, interestRate, years, annualWithdrawal) > 0.0) {
+            years++;
+        }
+
+        // The iterative loop rounds once per year; when the deciding balance is
+        // within that noise of zero, replay the loop to get its exact answer.
+        double noise = AMBIGUOUS_BALANCE * Math.max(startingBalance, annualWithdrawal * years);
+        if (Math.abs(endBalance(startingBalance, interestRate, years, annualWithdrawal)) <= noise
+                || (years > 1 && Math.abs(endBalance(startingBalance, interestRate, years - 1, annualWithdrawal)) <= noise)) {
+            return iterateDepletion(startingBalance, annualWithdrawal, interestRate, years + 1);
+        }
+        return years;
+    }
+
+    /**
+     * Overload for maximumExpensed with default retirement period of 30 years.
+     */
+    public static double maximumExpensed(double principal, double rate) {
+        return maximumExpensed(principal, rate, 30);
+    }
+
+    /**
+     * Closed-form {@link RetirementSimulator#maximumExpensed}: the annuity payment
+     *      W = B * r / (1 - (1 + r)^-n)
+     * that leaves exactly zero after {@code years} withdrawals. A zero rate
+     * reduces to B / n.
+     *
+     * Time complexity: O(1).
+     *
+     * @param principal Starting retirement balance (>= 0)
+     * @param rate      Annual growth rate as decimal (e.g., 0.05 for 5%)
+     * @param years     Modeled retirement period (e.g., 30)
+     * @return Optimal annual withdrawal rounded to cents
+     * @throws IllegalArgumentException if inputs are invalid
+     */
+    public static double maximumExpensed(double principal, double rate, int years) {
+        if (Double.isNaN(principal) || Double.isNaN(rate)) {
+            throw new IllegalArgumentException("Inputs must be numeric.");
+        }
+        if (Double.isInfinite(principal) || Double.isInfinite(rate)) {
+            throw new IllegalArgumentException("Inputs must be finite.");
+        }
+        if (principal <= 0.0) {
+            return 0.0; // nothing to withdraw
+        }
+        if (years <= 0) {
+            throw new IllegalArgumentException("Years must be positive.");
+        }
+        if (rate <= -1.0) {
+            throw new IllegalArgumentException("Rate cannot be less than -100%.");
+        }
+        return roundToCents(principal / annuityFactor(rate, years));
+    }
+
+    /**
+     * Balance left after {@code years} of B <- B * (1 + rate) - withdrawal.
+     *
+     * @param principal  Starting balance
+     * @param rate       Annual growth rate as decimal
+     * @param years      Number of years (>= 0)
+     * @param withdrawal Amount withdrawn at the end of every year
+     * @return Ending balance (may be negative)
+     */
+    public static double endBalance(double principal, double rate, int years, double withdrawal) {
+        return principal * growthFactor(rate, years) - withdrawal * accumulationFactor(rate, years);
+    }
+
+    /**
+     * @return (1 + rate)^years
+     */
+    public static double growthFactor(double rate, int years) {
+        return Math.pow(1.0 + rate, years);
+    }
+
+    /**
+     * Future value of one unit deposited every year: ((1 + r)^n - 1) / r, or n when r = 0.
+     */
+    public static double accumulationFactor(double rate, int years) {
+        if (rate == 0.0) {
+            return years;
+        }
+        // expm1/log1p keep full precision when the rate is tiny
+        return Math.expm1(years * Math.log1p(rate)) / rate;
+    }
+
+    /**
+     * Present value of one unit paid every year: (1 - (1 + r)^-n) / r, or n when r = 0.
+     */
+    public static double annuityFactor(double rate, int years) {
+        if (rate == 0.0) {
+            return years;
+        }
+        return -Math.expm1(-years * Math.log1p(rate)) / rate;
+    }
+
+    // Same loop as RetirementSimulator.finallyRetired, but never runs past maxYears
+    private static int iterateDepletion(double balance, double withdrawal, double rate, int maxYears) {
+        int duration = 0;
+        while (balance > 0 && duration < maxYears) {
+            balance = balance + balance * rate - withdrawal;
+            duration++;
+        }
+        return duration;
+    }
+
+    // Helper: round a monetary value to two decimal places (cents)
+    private static double roundToCents(double x) {
+        return Math.round(x * 100.0) / 100.0;
+    }
+}
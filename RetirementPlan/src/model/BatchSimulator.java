@@ -0,0 +1,213 @@
+// Project: Retirement Simulator
+// Package: model
+
+package model;
+
+import java.util.stream.IntStream;
+
+/**
+ * Array-at-a-time versions of {@link RetirementSimulator#fixedInvestor} and
+ * the bisection behind {@link RetirementSimulator#maximumExpensed}, for
+ * millions of independent (principal, rate, years) scenarios.
+ *
+ * Inputs and outputs are struct-of-arrays: scenario i is
+ * (principals[i], rates[i], years[i]) and its answer goes to out[i]. When
+ * the {@code jdk.incubator.vector} module is present (run with
+ * {@code --add-modules jdk.incubator.vector}) the loops run across SIMD
+ * lanes: lanes whose horizon is shorter, or whose bisection has already
+ * converged, are masked off while the rest continue. Without the module, or
+ * with {@code -Dsimulator.vector=false}, a scalar loop runs instead.
+ *
+ * Both paths do the same IEEE operations per scenario (no fused
+ * multiply-add, no vector pow), so they give bit-identical results, and
+ * fixedInvestor matches {@link RetirementSimulator#fixedInvestor} exactly.
+ * Large batches are split into chunks across the common fork/join pool.
+ */
+public final class BatchSimulator {
+
+    /** System property that, when "false", forces the scalar path. */
+    public static final String PROPERTY = "simulator.vector";
+
+    /** Largest number of bisection steps per scenario, as in {@link WithdrawalSolver}. */
+    public static final int MAX_ITERS = WithdrawalSolver.MAX_ITERS;
+
+    /** A scenario has converged once its ending balance is within this of zero. */
+    public static final double TOLERANCE = WithdrawalSolver.TOLERANCE;
+
+    private static final int CHUNK = 4096;
+
+    private static final boolean AVAILABLE =
+            ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    private static volatile boolean vectorized =
+            AVAILABLE && !"false".equalsIgnoreCase(System.getProperty(PROPERTY));
+
+    private BatchSimulator() {
+    }
+
+    /**
+     * Chooses between the SIMD and scalar paths.
+     *
+     * @param on Whether to use the Vector API
+     * @return Whether the Vector API is now used (false if the module is missing)
+     */
+    public static boolean setVectorized(boolean on) {
+        vectorized = on && AVAILABLE;
+        return vectorized;
+    }
+
+    /** @return Whether batches run on the Vector API */
+    public static boolean isVectorized() {
+        return vectorized;
+    }
+
+    /**
+     * Batch {@link RetirementSimulator#fixedInvestor}.
+     *
+     * @param principals Initial investments (each >= 0)
+     * @param rates      Annual interest rates as decimals (each > -1)
+     * @param years      Numbers of years (each >= 0)
+     * @param out        Receives the future values; same length as the inputs
+     * @throws IllegalArgumentException if the arrays differ in length or a scenario is invalid
+     */
+    public static void fixedInvestor(double[] principals, double[] rates, int[] years, double[] out) {
+        int n = checkLengths(principals, rates, years, out);
+        for (int i = 0; i < n; i++) {
+            if (principals[i] < 0) {
+                throw new IllegalArgumentException("Principal must be non-negative. (scenario " + i + ")");
+            }
+            if (years[i] < 0) {
+                throw new IllegalArgumentException("Years must be non-negative. (scenario " + i + ")");
+            }
+            if (rates[i] <= -1.0) {
+                throw new IllegalArgumentException("Rate cannot be less than -100%. (scenario " + i + ")");
+            }
+        }
+        boolean simd = vectorized;
+        chunks(n).forEach(c -> {
+            int from = c * CHUNK;
+            int to = Math.min(from + CHUNK, n);
+            if (simd) {
+                VectorBatch.fixedInvestor(principals, rates, years, out, from, to);
+            } else {
+                fixedInvestorScalar(principals, rates, years, out, from, to);
+            }
+        });
+    }
+
+    /**
+     * Batch maximum withdrawal by bisection: for every scenario, the annual
+     * withdrawal that leaves a balance within {@link #TOLERANCE} of zero
+     * after {@code years} of B <- B * (1 + rate) - W, rounded to cents.
+     * Agrees with {@link RetirementSimulator#maximumExpensed} to within the
+     * solver tolerance.
+     *
+     * @param principals Starting balances (a scenario with principal <= 0 gets 0)
+     * @param rates      Annual growth rates as decimals (each > -1)
+     * @param years      Retirement periods (each > 0)
+     * @param out        Receives the withdrawals; same length as the inputs
+     * @throws IllegalArgumentException if the arrays differ in length or a scenario is invalid
+     */
+    public static void maximumExpensed(double[] principals, double[] rates, int[] years, double[] out) {
+        int n = checkLengths(principals, rates, years, out);
+        double[] upper = new double[n];
+        for (int i = 0; i < n; i++) {
+            double p = principals[i];
+            double r = rates[i];
+            if (Double.isNaN(p) || Double.isNaN(r)) {
+                throw new IllegalArgumentException("Inputs must be numeric. (scenario " + i + ")");
+            }
+            if (Double.isInfinite(p) || Double.isInfinite(r)) {
+                throw new IllegalArgumentException("Inputs must be finite. (scenario " + i + ")");
+            }
+            if (p > 0.0 && years[i] <= 0) {
+                throw new IllegalArgumentException("Years must be positive. (scenario " + i + ")");
+            }
+            if (p > 0.0 && r <= -1.0) {
+                throw new IllegalArgumentException("Rate cannot be less than -100%. (scenario " + i + ")");
+            }
+            // Withdrawing the first year's balance empties the account at
+            // once, so it bounds the answer; unlike p * (1 + r)^years it
+            // cannot overflow on long horizons. Computed here so both paths
+            // start from the same bracket.
+            upper[i] = (p <= 0.0) ? 0.0 : (r <= 0.0) ? p : p * (1.0 + r);
+        }
+        boolean simd = vectorized;
+        chunks(n).forEach(c -> {
+            int from = c * CHUNK;
+            int to = Math.min(from + CHUNK, n);
+            if (simd) {
+                VectorBatch.maximumExpensed(principals, rates, years, upper, out, from, to);
+            } else {
+                maximumExpensedScalar(principals, rates, years, upper, out, from, to);
+            }
+            for (int i = from; i < to; i++) {
+                out[i] = roundToCents(out[i]);
+            }
+        });
+    }
+
+    static void fixedInvestorScalar(double[] principals, double[] rates, int[] years, double[] out,
+                                    int from, int to) {
+        for (int i = from; i < to; i++) {
+            double futureValue = principals[i];
+            for (int y = 0; y < years[i]; y++) {
+                futureValue = futureValue * (1 + rates[i]);
+            }
+            out[i] = futureValue;
+        }
+    }
+
+    static void maximumExpensedScalar(double[] principals, double[] rates, int[] years, double[] upper,
+                                      double[] out, int from, int to) {
+        for (int i = from; i < to; i++) {
+            double p = principals[i];
+            if (!(p > 0.0)) {
+                out[i] = 0.0;
+                continue;
+            }
+            double growth = 1.0 + rates[i];
+            double lo = 0.0;
+            double hi = upper[i];
+            double result = Double.NaN;
+            for (int it = 0; it < MAX_ITERS; it++) {
+                double mid = 0.5 * (lo + hi);
+                double b = p;
+                for (int y = 0; y < years[i]; y++) {
+                    b = b * growth - mid;
+                }
+                if (Math.abs(b) <= TOLERANCE) {
+                    result = mid;
+                    break;
+                }
+                if (b > 0.0) {
+                    lo = mid;
+                } else {
+                    hi = mid;
+                }
+            }
+            out[i] = Double.isNaN(result) ? 0.5 * (lo + hi) : result;
+        }
+    }
+
+    private static int checkLengths(double[] principals, double[] rates, int[] years, double[] out) {
+        if (principals == null || rates == null || years == null || out == null) {
+            throw new IllegalArgumentException("Batch arrays cannot be null.");
+        }
+        int n = principals.length;
+        if (rates.length != n || years.length != n || out.length != n) {
+            throw new IllegalArgumentException("Batch arrays must all have the same length.");
+        }
+        return n;
+    }
+
+    private static IntStream chunks(int n) {
+        IntStream chunks = IntStream.range(0, (n + CHUNK - 1) / CHUNK);
+        return n > CHUNK ? chunks.parallel() : chunks;
+    }
+
+    // Helper: round a monetary value to two decimal places (cents)
+    private static double roundToCents(double x) {
+        return Math.round(x * 100.0) / 100.0;
+    }
+}
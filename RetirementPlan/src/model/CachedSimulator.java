@@ -0,0 +1,134 @@
+// Project: Retirement Simulator
+// Package: model
+
+package model;
+
+import metrics.InstrumentedSimulator;
+
+/**
+ * Opt-in memoizing front end for {@code maximumExpensed} and
+ * {@code finallyRetired}, for callers that ask the same questions over and
+ * over (UI refreshes, batch jobs).
+ *
+ * Inputs are quantized before lookup: money to whole cents and rates to
+ * whole basis points (0.01%). The answer is computed for the quantized
+ * inputs, so a cached value never depends on which nearby input happened
+ * to be asked first. Invalid inputs, inputs too large to pack into a key,
+ * and valid inputs that quantize to invalid ones (e.g. a withdrawal under
+ * half a cent) go straight to the simulator and are never cached. Every
+ * computation, cached or not, goes through {@link InstrumentedSimulator};
+ * cache hits are not simulator calls and are not recorded there.
+ *
+ * Each function has its own bounded table; see {@link LongPairCache} for
+ * the eviction policy. Instances are safe to share between threads.
+ */
+public class CachedSimulator {
+
+    // Limits of the finallyRetired key: withdrawal cents in 40 bits, basis points in 24 bits
+    private static final long MAX_WITHDRAWAL_CENTS = (1L << 40) - 1;
+    private static final int MAX_RATE_BP_24 = (1 << 23) - 1;
+
+    private static final double MAX_CENTS = 9.0e18;
+
+    private final LongPairCache expensedCache;
+    private final LongPairCache retiredCache;
+
+    /**
+     * @param maxEntries Maximum number of cached answers per function (> 0)
+     * @throws IllegalArgumentException if maxEntries is not positive
+     */
+    public CachedSimulator(int maxEntries) {
+        this.expensedCache = new LongPairCache(maxEntries);
+        this.retiredCache = new LongPairCache(maxEntries);
+    }
+
+    /**
+     * Cached {@link RetirementSimulator#maximumExpensed(double, double, int)}.
+     *
+     * @param principal Starting retirement balance, quantized to cents
+     * @param rate      Annual growth rate as decimal, quantized to basis points
+     * @param years     Modeled retirement period
+     * @return Optimal annual withdrawal rounded to cents
+     * @throws IllegalArgumentException if inputs are invalid
+     */
+    public double maximumExpensed(double principal, double rate, int years) {
+        // Invalid inputs must throw rather than round into a valid key
+        if (!(principal > 0.0 && principal * 100.0 < MAX_CENTS)
+                || !(rate > -1.0 && rate * 10_000.0 < Integer.MAX_VALUE) || years <= 0) {
+            return InstrumentedSimulator.maximumExpensed(principal, rate, years);   // invalid, empty, infinite or unpackable
+        }
+        long cents = Math.round(principal * 100.0);
+        int bp = (int) Math.round(rate * 10_000.0);
+        if (cents == 0 || bp <= -10_000) {
+            return InstrumentedSimulator.maximumExpensed(principal, rate, years);   // valid, but not once quantized
+        }
+        long key2 = ((long) bp << 32) | (years & 0xFFFFFFFFL);
+
+        double cached = expensedCache.get(cents, key2);
+        if (!Double.isNaN(cached)) {
+            return cached;
+        }
+        double result = InstrumentedSimulator.maximumExpensed(cents / 100.0, bp / 10_000.0, years);
+        expensedCache.put(cents, key2, result);
+        return result;
+    }
+
+    /**
+     * Cached depletion count. Misses are answered by
+     * {@link AnalyticSimulator#finallyRetired}, which returns the same year
+     * count as {@link RetirementSimulator#finallyRetired} but cannot loop
+     * forever.
+     *
+     * @param startingBalance  Initial amount, quantized to cents
+     * @param annualWithdrawal Fixed withdrawal amount each year, quantized to cents
+     * @param interestRate     Annual growth rate as decimal, quantized to basis points
+     * @return Number of years before the account is depleted, or
+     *         {@link AnalyticSimulator#NEVER_DEPLETES}
+     * @throws IllegalArgumentException if inputs are invalid
+     */
+    public int finallyRetired(double startingBalance, double annualWithdrawal, double interestRate) {
+        // A negative withdrawal would shift into the same key as a large valid one
+        if (!(startingBalance >= 0.0 && startingBalance * 100.0 < MAX_CENTS)
+                || !(annualWithdrawal > 0.0 && annualWithdrawal * 100.0 <= MAX_WITHDRAWAL_CENTS)
+                || !(interestRate > -1.0 && interestRate * 10_000.0 <= MAX_RATE_BP_24)) {
+            return InstrumentedSimulator.finallyRetiredClosedForm(startingBalance, annualWithdrawal, interestRate);
+        }
+        long balanceCents = Math.round(startingBalance * 100.0);
+        long withdrawalCents = Math.round(annualWithdrawal * 100.0);
+        int bp = (int) Math.round(interestRate * 10_000.0);
+        if (withdrawalCents == 0 || bp <= -10_000) {
+            // Valid, but would be rejected once quantized
+            return InstrumentedSimulator.finallyRetiredClosedForm(startingBalance, annualWithdrawal, interestRate);
+        }
+        long key2 = (withdrawalCents << 24) | (bp & 0xFFFFFFL);
+
+        double cached = retiredCache.get(balanceCents, key2);
+        if (!Double.isNaN(cached)) {
+            return (int) cached;
+        }
+        int result = InstrumentedSimulator.finallyRetiredClosedForm(
+                balanceCents / 100.0, withdrawalCents / 100.0, bp / 10_000.0);
+        retiredCache.put(balanceCents, key2, result);
+        return result;
+    }
+
+    /** @return Lookups answered from either cache */
+    public long getHits() {
+        return expensedCache.getHits() + retiredCache.getHits();
+    }
+
+    /** @return Lookups that had to be computed */
+    public long getMisses() {
+        return expensedCache.getMisses() + retiredCache.getMisses();
+    }
+
+    /** @return Entries dropped to make room for new ones */
+    public long getEvictions() {
+        return expensedCache.getEvictions() + retiredCache.getEvictions();
+    }
+
+    /** @return Actual number of slots per function (requested size rounded up) */
+    public int getCapacity() {
+        return expensedCache.capacity();
+    }
+}
@@ -0,0 +1,329 @@
+// Project: Retirement Simulator
+// Package: model
+
+package model;
+
+/**
+ * Monthly cash-flow engine: a saving phase followed by a retirement phase.
+ *
+ * Every month the balance grows, pays its fee and then takes the month's
+ * cash flow:
+ *      B <- B * (1 + return) * (1 - fee) + contribution     while saving
+ *      B <- B * (1 + return) * (1 - fee) - W * (1 + i)^k    in retirement month k
+ * where W is the first retirement month's withdrawal and i the monthly
+ * inflation, so withdrawals keep their purchasing power. Annual rates are
+ * converted to the equivalent monthly rates.
+ *
+ * {@link #compile} turns the schedule into monthly factors once; the
+ * step kernels then only read primitives and never allocate, so one
+ * schedule can drive millions of 720+ month paths, from any number of
+ * threads (a compiled schedule is immutable).
+ */
+public final class CashFlowSchedule {
+
+    /** Returned by {@link #finallyRetired} when the balance outlasts the schedule. */
+    public static final int OUTLASTS_SCHEDULE = Integer.MAX_VALUE;
+
+    private final int savingMonths;
+    private final int retirementMonths;
+    private final double growth;             // deterministic (1 + return) * (1 - fee)
+    private final double feeFactor;          // 1 - monthly fee, for path returns
+    private final double contribution;
+    private final double[] indexation;       // (1 + i)^k for retirement month k
+
+    private CashFlowSchedule(int savingMonths, int retirementMonths, double growth, double feeFactor,
+                             double contribution, double[] indexation) {
+        this.savingMonths = savingMonths;
+        this.retirementMonths = retirementMonths;
+        this.growth = growth;
+        this.feeFactor = feeFactor;
+        this.contribution = contribution;
+        this.indexation = indexation;
+    }
+
+    /**
+     * Compiles a schedule.
+     *
+     * @param annualReturn        Expected annual return as decimal (e.g., 0.07)
+     * @param annualFee           Annual fee as a fraction of the balance (e.g., 0.005), 0 <= fee < 1
+     * @param annualInflation     Annual inflation used to index withdrawals (e.g., 0.025)
+     * @param savingMonths        Months of contributions before retirement (>= 0)
+     * @param monthlyContribution Amount added at the end of every saving month (>= 0)
+     * @param retirementMonths    Months of withdrawals (> 0), e.g. 360 for 30 years
+     * @return Compiled schedule
+     * @throws IllegalArgumentException if inputs are invalid
+     */
+    public static CashFlowSchedule compile(double annualReturn, double annualFee, double annualInflation,
+                                           int savingMonths, double monthlyContribution,
+                                           int retirementMonths) {
+        if (!isFinite(annualReturn) || !isFinite(annualFee) || !isFinite(annualInflation)
+                || !isFinite(monthlyContribution)) {
+            throw new IllegalArgumentException("Inputs must be finite.");
+        }
+        if (annualReturn <= -1.0 || annualInflation <= -1.0) {
+            throw new IllegalArgumentException("Rate cannot be less than -100%.");
+        }
+        if (annualFee < 0.0 || annualFee >= 1.0) {
+            throw new IllegalArgumentException("Fee must be between 0% and 100%.");
+        }
+        if (savingMonths < 0) {
+            throw new IllegalArgumentException("Saving months must be non-negative.");
+        }
+        if (monthlyContribution < 0.0) {
+            throw new IllegalArgumentException("Contribution must be non-negative.");
+        }
+        if (retirementMonths <= 0) {
+            throw new IllegalArgumentException("Retirement months must be positive.");
+        }
+
+        double feeFactor = Math.exp(Math.log1p(-annualFee) / 12.0);
+        double growth = Math.exp(Math.log1p(annualReturn) / 12.0) * feeFactor;
+        double monthlyInflation = Math.exp(Math.log1p(annualInflation) / 12.0);
+
+        double[] indexation = new double[retirementMonths];
+        double index = 1.0;
+        for (int k = 0; k < retirementMonths; k++) {
+            indexation[k] = index;
+            index *= monthlyInflation;
+        }
+        return new CashFlowSchedule(savingMonths, retirementMonths, growth, feeFactor,
+                monthlyContribution, indexation);
+    }
+
+    /** @return Total months in the schedule (saving + retirement) */
+    public int getMonths() {
+        return savingMonths + retirementMonths;
+    }
+
+    public int getSavingMonths() {
+        return savingMonths;
+    }
+
+    public int getRetirementMonths() {
+        return retirementMonths;
+    }
+
+    /**
+     * Balance at the end of the schedule at the expected return.
+     *
+     * @param principal         Starting balance (>= 0)
+     * @param monthlyWithdrawal First retirement month's withdrawal (later months are indexed)
+     * @return Ending balance (negative if the money ran out)
+     */
+    public double endBalance(double principal, double monthlyWithdrawal) {
+        double b = saved(principal);
+        for (int k = 0; k < retirementMonths; k++) {
+            b = b * growth - monthlyWithdrawal * indexation[k];
+        }
+        return b;
+    }
+
+    /**
+     * Same as {@link #endBalance(double, double)} but along one simulated
+     * path of monthly returns, e.g. a row of a Monte Carlo draw.
+     *
+     * @param principal         Starting balance
+     * @param monthlyWithdrawal First retirement month's withdrawal
+     * @param returns           Monthly returns as decimals (before fees)
+     * @param offset            Index of this path's first month in {@code returns}
+     * @return Ending balance (negative if the money ran out)
+     * @throws ArrayIndexOutOfBoundsException if fewer than {@link #getMonths()} returns follow offset
+     */
+    public double endBalance(double principal, double monthlyWithdrawal, double[] returns, int offset) {
+        double b = principal;
+        int t = offset;
+        for (int m = 0; m < savingMonths; m++, t++) {
+            b = b * ((1.0 + returns[t]) * feeFactor) + contribution;
+        }
+        for (int k = 0; k < retirementMonths; k++, t++) {
+            b = b * ((1.0 + returns[t]) * feeFactor) - monthlyWithdrawal * indexation[k];
+        }
+        return b;
+    }
+
+    /**
+     * Same as {@link #endBalance(double, double, double[], int)} but also
+     * writes the path's balance after every month into {@code store}
+     * (period 0 is the principal, period m the balance after month m).
+     *
+     * @param store Off-heap store with at least {@link #getMonths()} + 1 periods
+     * @param path  Row of the store to fill
+     * @return Ending balance (negative if the money ran out)
+     */
+    public double trajectory(double principal, double monthlyWithdrawal, double[] returns, int offset,
+                             PathStore store, int path) {
+        double b = principal;
+        int t = offset;
+        store.set(path, 0, b);
+        for (int m = 0; m < savingMonths; m++, t++) {
+            b = b * ((1.0 + returns[t]) * feeFactor) + contribution;
+            store.set(path, m + 1, b);
+        }
+        for (int k = 0; k < retirementMonths; k++, t++) {
+            b = b * ((1.0 + returns[t]) * feeFactor) - monthlyWithdrawal * indexation[k];
+            store.set(path, savingMonths + k + 1, b);
+        }
+        return b;
+    }
+
+    /**
+     * {@link #endBalance(double, double, double[], int)} for many paths at
+     * once. Path p reads {@code returns[p * getMonths() ...]}. Four paths are
+     * stepped together so their independent balance chains overlap in the
+     * CPU instead of each month waiting on the previous one.
+     *
+     * @param principal         Starting balance
+     * @param monthlyWithdrawal First retirement month's withdrawal
+     * @param returns           Monthly returns of every path, one path after another
+     * @param out               Receives one ending balance per path
+     * @throws IllegalArgumentException if returns holds fewer than out.length paths
+     */
+    public void endBalances(double principal, double monthlyWithdrawal, double[] returns, double[] out) {
+        int months = getMonths();
+        if ((long) out.length * months > returns.length) {
+            throw new IllegalArgumentException("Need " + months + " returns per path.");
+        }
+        int p = 0;
+        for (; p + 4 <= out.length; p += 4) {
+            int t0 = p * months;
+            int t1 = t0 + months;
+            int t2 = t1 + months;
+            int t3 = t2 + months;
+            double b0 = principal;
+            double b1 = principal;
+            double b2 = principal;
+            double b3 = principal;
+            for (int m = 0; m < savingMonths; m++) {
+                b0 = b0 * ((1.0 + returns[t0 + m]) * feeFactor) + contribution;
+                b1 = b1 * ((1.0 + returns[t1 + m]) * feeFactor) + contribution;
+                b2 = b2 * ((1.0 + returns[t2 + m]) * feeFactor) + contribution;
+                b3 = b3 * ((1.0 + returns[t3 + m]) * feeFactor) + contribution;
+            }
+            for (int k = 0, m = savingMonths; k < retirementMonths; k++, m++) {
+                double w = monthlyWithdrawal * indexation[k];
+                b0 = b0 * ((1.0 + returns[t0 + m]) * feeFactor) - w;
+                b1 = b1 * ((1.0 + returns[t1 + m]) * feeFactor) - w;
+                b2 = b2 * ((1.0 + returns[t2 + m]) * feeFactor) - w;
+                b3 = b3 * ((1.0 + returns[t3 + m]) * feeFactor) - w;
+            }
+            out[p] = b0;
+            out[p + 1] = b1;
+            out[p + 2] = b2;
+            out[p + 3] = b3;
+        }
+        for (; p < out.length; p++) {
+            out[p] = endBalance(principal, monthlyWithdrawal, returns, p * months);
+        }
+    }
+
+    /**
+     * Monthly counterpart of {@link RetirementSimulator#finallyRetired}: how
+     * many retirement months the balance lasts at the expected return.
+     *
+     * @param principal         Starting balance (>= 0)
+     * @param monthlyWithdrawal First retirement month's withdrawal (> 0)
+     * @return Retirement months until the balance is depleted (0 if nothing
+     *         is saved at retirement), or {@link #OUTLASTS_SCHEDULE} if it
+     *         lasts every month of the schedule
+     * @throws IllegalArgumentException if inputs are invalid
+     */
+    public int finallyRetired(double principal, double monthlyWithdrawal) {
+        validate(principal, monthlyWithdrawal);
+        double b = saved(principal);
+        if (b <= 0.0) {
+            return 0;       // nothing to draw on, as in RetirementSimulator
+        }
+        for (int k = 0; k < retirementMonths; k++) {
+            b = b * growth - monthlyWithdrawal * indexation[k];
+            if (b <= 0.0) {
+                return k + 1;
+            }
+        }
+        return OUTLASTS_SCHEDULE;
+    }
+
+    /**
+     * Same as {@link #finallyRetired(double, double)} along one path of monthly returns.
+     *
+     * @param returns Monthly returns as decimals (before fees)
+     * @param offset  Index of this path's first month in {@code returns}
+     * @return Retirement months until depletion, or {@link #OUTLASTS_SCHEDULE}
+     * @throws IllegalArgumentException if inputs are invalid
+     */
+    public int finallyRetired(double principal, double monthlyWithdrawal, double[] returns, int offset) {
+        validate(principal, monthlyWithdrawal);
+        double b = principal;
+        int t = offset;
+        for (int m = 0; m < savingMonths; m++, t++) {
+            b = b * ((1.0 + returns[t]) * feeFactor) + contribution;
+        }
+        if (b <= 0.0) {
+            return 0;
+        }
+        for (int k = 0; k < retirementMonths; k++, t++) {
+            b = b * ((1.0 + returns[t]) * feeFactor) - monthlyWithdrawal * indexation[k];
+            if (b <= 0.0) {
+                return k + 1;
+            }
+        }
+        return OUTLASTS_SCHEDULE;
+    }
+
+    /**
+     * Monthly counterpart of {@link RetirementSimulator#maximumExpensed}: the
+     * largest first-month withdrawal which, indexed to inflation, leaves
+     * (approximately) nothing at the end of the schedule. Solved by
+     * {@link WithdrawalSolver} on the schedule's ending balance.
+     *
+     * @param principal Starting balance
+     * @return First retirement month's withdrawal rounded to cents (0 if nothing is saved)
+     * @throws IllegalArgumentException if inputs are invalid
+     */
+    public double maximumExpensed(double principal) {
+        if (Double.isNaN(principal) || Double.isInfinite(principal)) {
+            throw new IllegalArgumentException("Inputs must be finite.");
+        }
+        double saved = saved(Math.max(0.0, principal));
+        if (saved <= 0.0) {
+            return 0.0; // nothing to withdraw
+        }
+        WithdrawalSolver.EndBalance f = (withdrawal, slope) -> {
+            double b = saved;
+            double db = 0.0;
+            for (int k = 0; k < retirementMonths; k++) {
+                b = b * growth - withdrawal * indexation[k];
+                db = db * growth - indexation[k];
+            }
+            slope[0] = db;
+            return b;
+        };
+        return roundToCents(WithdrawalSolver.solve(f, saved / retirementMonths).getWithdrawal());
+    }
+
+    // Balance on the first day of retirement at the expected return
+    private double saved(double principal) {
+        double b = principal;
+        for (int m = 0; m < savingMonths; m++) {
+            b = b * growth + contribution;
+        }
+        return b;
+    }
+
+    private static void validate(double principal, double monthlyWithdrawal) {
+        if (principal < 0) {
+            throw new IllegalArgumentException("Balance must not be a negative ");
+        }
+        if (monthlyWithdrawal <= 0) {
+            throw new IllegalArgumentException("Withdrawal amount must be greater than zero(0)");
+        }
+    }
+
+    private static boolean isFinite(double x) {
+        return !Double.isNaN(x) && !Double.isInfinite(x);
+    }
+
+    // Helper: round a monetary value to two decimal places (cents)
+    private static double roundToCents(double x) {
+        return Math.round(x * 100.0) / 100.0;
+    }
+}
@@ -0,0 +1,330 @@
+// Project: Retirement Simulator
+// Package: model
+
+package model;
+
+/**
+ * Fixed-point versions of the {@link RetirementSimulator} functions for
+ * cent-exact, reproducible ledgers.
+ *
+ * Money is a {@code long} number of cents and every rate is quantized once
+ * to a whole number of {@link #RATE_SCALE}ths (8 decimal places, so
+ * 7.5% is exactly 7,500,000 units). Each year the interest
+ *      balance * rateUnits / RATE_SCALE
+ * is computed exactly in integers and rounded to the cent half-to-even
+ * (banker's rounding), then added to the balance; withdrawals are whole
+ * cents. The same inputs therefore give the same ledger on every JVM and
+ * platform, and a ledger can be re-checked by hand year by year.
+ *
+ * Results differ from the double versions by the per-year roundings (a
+ * few cents over a typical plan). Amounts that would overflow a long
+ * (about 92 quadrillion dollars) raise an ArithmeticException instead of
+ * wrapping around.
+ */
+public class CentsSimulator {
+
+    /** Rates are whole multiples of 1 / RATE_SCALE. */
+    public static final long RATE_SCALE = 100_000_000L;
+
+    /** Returned by {@link #finallyRetired} when the balance never runs out. */
+    public static final int NEVER_DEPLETES = AnalyticSimulator.NEVER_DEPLETES;
+
+    /**
+     * Fixed-point {@link RetirementSimulator#fixedInvestor}.
+     *
+     * @param principalCents Initial investment in cents (must be >= 0)
+     * @param rate           Annual interest rate as decimal (e.g., 0.075 for 7.5%)
+     * @param years          Number of years (must be >= 0)
+     * @return Future value in cents
+     * @throws IllegalArgumentException if inputs are invalid
+     * @throws ArithmeticException      if the balance overflows a long
+     */
+    public static long fixedInvestor(long principalCents, double rate, int years) {
+        if (principalCents < 0) {
+            throw new IllegalArgumentException("Principal must be non-negative.");
+        }
+        if (years < 0) {
+            throw new IllegalArgumentException("Years must be non-negative.");
+        }
+        long rateUnits = rateUnits(rate);
+
+        long balance = principalCents;
+        for (int year = 0; year < years; year++) {
+            balance = Math.addExact(balance, interest(balance, rateUnits));
+        }
+        return balance;
+    }
+
+    /**
+     * Fixed-point {@link RetirementSimulator#variableInvestor}.
+     *
+     * @param principalCents Initial investment in cents (must be >= 0)
+     * @param ratesList      Annual interest rates as decimals
+     * @return Future value in cents
+     * @throws IllegalArgumentException if inputs are invalid
+     * @throws ArithmeticException      if the balance overflows a long
+     */
+    public static long variableInvestor(long principalCents, double[] ratesList) {
+        if (principalCents < 0) {
+            throw new IllegalArgumentException("Principal must be non-negative.");
+        }
+        if (ratesList == null || ratesList.length == 0) {
+            throw new IllegalArgumentException("Rates list cannot be null or empty.");
+        }
+
+        long balance = principalCents;
+        for (double rate : ratesList) {
+            balance = Math.addExact(balance, interest(balance, rateUnits(rate)));
+        }
+        return balance;
+    }
+
+    /**
+     * Fixed-point {@link RetirementSimulator#finallyRetired}. In whole cents a
+     * balance that does not shrink in one year never shrinks again (the
+     * yearly update is monotone in the balance), so that case returns
+     * {@link #NEVER_DEPLETES} instead of looping forever.
+     *
+     * @param startingCents   Initial amount in the retirement account in cents (>= 0)
+     * @param withdrawalCents Fixed withdrawal each year in cents (> 0)
+     * @param interestRate    Annual growth rate as decimal (e.g., 0.05 for 5%)
+     * @return Number of years before the account is depleted, or {@link #NEVER_DEPLETES}
+     * @throws IllegalArgumentException if inputs are invalid
+     */
+    public static int finallyRetired(long startingCents, long withdrawalCents, double interestRate) {
+        if (startingCents < 0) {
+            throw new IllegalArgumentException("Balance must not be a negative ");
+        }
+        if (withdrawalCents <= 0) {
+            throw new IllegalArgumentException("Withdrawal amount must be greater than zero(0)");
+        }
+        if (interestRate <= -1.0) {
+            throw new IllegalArgumentException("Grown rate cannot be less than -100%");
+        }
+        long rateUnits = rateUnits(interestRate);
+
+        long balance = startingCents;
+        int duration = 0;
+        while (balance > 0) {
+            long next = Math.subtractExact(Math.addExact(balance, interest(balance, rateUnits)), withdrawalCents);
+            duration++;
+            if (next <= 0) {
+                break;
+            }
+            if (next >= balance || duration == NEVER_DEPLETES - 1) {
+                return NEVER_DEPLETES;
+            }
+            balance = next;
+        }
+        return duration;
+    }
+
+    /**
+     * Overload for maximumExpensed with default retirement period of 30 years.
+     */
+    public static long maximumExpensed(long principalCents, double rate) {
+        return maximumExpensed(principalCents, rate, 30);
+    }
+
+    /**
+     * Fixed-point {@link RetirementSimulator#maximumExpensed}: the largest
+     * whole-cent withdrawal whose ledger still ends at or above zero after
+     * {@code years}. The ending balance only falls as the withdrawal grows,
+     * so the closed-form annuity payment is used as a first guess and the
+     * exact answer is bracketed and bisected around it, usually within a
+     * handful of ledger replays.
+     *
+     * Time complexity: O(years) per replay.
+     *
+     * @param principalCents Starting retirement balance in cents (>= 0)
+     * @param rate           Annual growth rate as decimal (e.g., 0.05 for 5%)
+     * @param years          Modeled retirement period (e.g., 30)
+     * @return Optimal annual withdrawal in cents
+     * @throws IllegalArgumentException if inputs are invalid
+     * @throws ArithmeticException      if a balance overflows a long
+     */
+    public static long maximumExpensed(long principalCents, double rate, int years) {
+        if (Double.isNaN(rate)) {
+            throw new IllegalArgumentException("Inputs must be numeric.");
+        }
+        if (Double.isInfinite(rate)) {
+            throw new IllegalArgumentException("Inputs must be finite.");
+        }
+        if (principalCents <= 0) {
+            return 0; // nothing to withdraw
+        }
+        if (years <= 0) {
+            throw new IllegalArgumentException("Years must be positive.");
+        }
+        if (rate <= -1.0) {
+            throw new IllegalArgumentException("Rate cannot be less than -100%.");
+        }
+        long rateUnits = rateUnits(rate);
+
+        // Withdrawing more than the first year's balance fails at once
+        long limit = Math.addExact(principalCents, interest(principalCents, rateUnits));
+        double estimate = principalCents / AnalyticSimulator.annuityFactor(rate, years);
+        long guess = (estimate >= 0.0 && estimate < limit) ? (long) estimate : principalCents / years;
+
+        // Bracket: lo always lasts, hi never does
+        long lo;
+        long hi;
+        long step = 1;
+        if (lasts(principalCents, rateUnits, years, guess)) {
+            lo = guess;
+            hi = guess + step;
+            while (hi <= limit && lasts(principalCents, rateUnits, years, hi)) {
+                lo = hi;
+                step *= 2;
+                hi = Math.min(lo + step, limit + 1);
+            }
+        } else {
+            hi = guess;
+            lo = guess - step;
+            while (lo > 0 && !lasts(principalCents, rateUnits, years, lo)) {
+                hi = lo;
+                step *= 2;
+                lo = Math.max(hi - step, 0);
+            }
+            lo = Math.max(lo, 0);
+        }
+        while (hi - lo > 1) {
+            long mid = (lo + hi) >>> 1;
+            if (lasts(principalCents, rateUnits, years, mid)) {
+                lo = mid;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Year-end balances of the ledger B <- B + interest(B, rate) - withdrawal.
+     *
+     * @param startingCents   Initial balance in cents (>= 0)
+     * @param ratesList       Annual growth rates as decimals, one per year
+     * @param withdrawalCents Withdrawal at the end of every year in cents (>= 0)
+     * @return balances[0] = starting balance, balances[y] = balance after year y
+     * @throws IllegalArgumentException if inputs are invalid
+     * @throws ArithmeticException      if a balance overflows a long
+     */
+    public static long[] ledger(long startingCents, double[] ratesList, long withdrawalCents) {
+        if (startingCents < 0) {
+            throw new IllegalArgumentException("Balance must not be a negative ");
+        }
+        if (withdrawalCents < 0) {
+            throw new IllegalArgumentException("Withdrawal must be non-negative.");
+        }
+        if (ratesList == null) {
+            throw new IllegalArgumentException("Rates list cannot be null or empty.");
+        }
+        long[] balances = new long[ratesList.length + 1];
+        balances[0] = startingCents;
+        for (int y = 0; y < ratesList.length; y++) {
+            long b = balances[y];
+            balances[y + 1] = Math.subtractExact(Math.addExact(b, interest(b, rateUnits(ratesList[y]))),
+                    withdrawalCents);
+        }
+        return balances;
+    }
+
+    /**
+     * Quantizes a rate to whole {@link #RATE_SCALE}ths, rounding half-to-even.
+     * A rate that is above -100% but rounds to it is rejected as well.
+     *
+     * @param rate Rate as decimal (> -1 after quantizing, finite)
+     * @return Rate in units of 1 / RATE_SCALE
+     * @throws IllegalArgumentException if the rate is invalid
+     */
+    public static long rateUnits(double rate) {
+        if (Double.isNaN(rate) || Double.isInfinite(rate)) {
+            throw new IllegalArgumentException("Rates must be finite numbers.");
+        }
+        if (rate <= -1.0) {
+            throw new IllegalArgumentException("Rate cannot be less than -100%.");
+        }
+        double scaled = Math.rint(rate * RATE_SCALE);
+        if (scaled <= -RATE_SCALE) {
+            // e.g. -0.999999999 rounds to exactly -100%
+            throw new IllegalArgumentException("Rate cannot be less than -100%.");
+        }
+        if (scaled >= 0x1p63) {
+            throw new IllegalArgumentException("Rate is too large.");
+        }
+        return (long) scaled;
+    }
+
+    /**
+     * Converts dollars to cents, rounding half-to-even.
+     *
+     * @param dollars Amount in dollars (finite)
+     * @return Amount in cents
+     * @throws IllegalArgumentException if the amount is not finite or does not fit
+     */
+    public static long toCents(double dollars) {
+        double cents = Math.rint(dollars * 100.0);
+        if (Double.isNaN(cents) || Math.abs(cents) >= 0x1p63) {
+            throw new IllegalArgumentException("Inputs must be finite.");
+        }
+        return (long) cents;
+    }
+
+    /**
+     * @param cents Amount in cents
+     * @return Same amount in dollars (exact below about 90 trillion dollars)
+     */
+    public static double toDollars(long cents) {
+        return cents / 100.0;
+    }
+
+    /**
+     * One year's interest on a balance: balance * rateUnits / RATE_SCALE,
+     * rounded half-to-even to the cent. The product fits in a long for any
+     * realistic balance (below about $920M at 10%); larger balances are
+     * split as balance = q * RATE_SCALE + r so every intermediate still fits.
+     *
+     * @param balanceCents Balance in cents
+     * @param rateUnits    Rate in units of 1 / RATE_SCALE
+     * @return Interest in cents
+     * @throws ArithmeticException if the interest overflows a long
+     */
+    public static long interest(long balanceCents, long rateUnits) {
+        long product = balanceCents * rateUnits;
+        if (Math.multiplyHigh(balanceCents, rateUnits) == (product >> 63)) {
+            return divideHalfEven(product);
+        }
+        long q = Math.floorDiv(balanceCents, RATE_SCALE);
+        long r = Math.floorMod(balanceCents, RATE_SCALE);
+        long whole = Math.multiplyExact(q, rateUnits);
+        return Math.addExact(whole, divideHalfEven(Math.multiplyExact(r, rateUnits)));
+    }
+
+    // numerator / RATE_SCALE rounded half-to-even
+    private static long divideHalfEven(long numerator) {
+        long quotient = Math.floorDiv(numerator, RATE_SCALE);
+        long twice = 2 * (numerator - quotient * RATE_SCALE);
+        if (twice > RATE_SCALE || (twice == RATE_SCALE && (quotient & 1) != 0)) {
+            quotient++;
+        }
+        return quotient;
+    }
+
+    // True when withdrawing `withdrawal` every year leaves a non-negative balance.
+    // A negative balance stays negative and one that stops shrinking never
+    // shrinks again, so both cases end the replay early.
+    private static boolean lasts(long principal, long rateUnits, int years, long withdrawal) {
+        long balance = principal;
+        for (int year = 0; year < years; year++) {
+            long next = Math.subtractExact(Math.addExact(balance, interest(balance, rateUnits)), withdrawal);
+            if (next < 0) {
+                return false;
+            }
+            if (next >= balance) {
+                return true;
+            }
+            balance = next;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,147 @@
+// Project: Retirement Simulator
+// Package: model
+
+package model;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-size map from a pair of primitive longs to a double, used by
+ * {@link CachedSimulator}. Nothing is boxed: keys and values live in
+ * parallel arrays.
+ *
+ * The table is set-associative. A key hashes to one set of {@code WAYS}
+ * slots, and a full set evicts with the CLOCK policy: every hit sets a
+ * reference bit, and the hand skips (and clears) referenced slots before
+ * evicting. Sets are guarded by a small array of striped locks, so
+ * concurrent callers only contend when they land on the same stripe.
+ */
+final class LongPairCache {
+
+    private static final int WAYS = 8;
+    private static final int LOCK_STRIPES = 64;
+
+    private static final byte EMPTY = 0;
+    private static final byte PRESENT = 1;
+    private static final byte REFERENCED = 2;
+
+    private final int setMask;
+    private final long[] keys1;
+    private final long[] keys2;
+    private final double[] values;
+    private final byte[] states;
+    private final byte[] hands;
+    private final Object[] locks;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maxEntries Requested capacity; rounded up to a power of two sets of {@code WAYS}
+     */
+    LongPairCache(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive.");
+        }
+        int sets = Integer.highestOneBit(Math.max(1, (maxEntries + WAYS - 1) / WAYS));
+        if (sets * WAYS < maxEntries) {
+            sets <<= 1;
+        }
+        this.setMask = sets - 1;
+        int slots = sets * WAYS;
+        this.keys1 = new long[slots];
+        this.keys2 = new long[slots];
+        this.values = new double[slots];
+        this.states = new byte[slots];
+        this.hands = new byte[sets];
+        this.locks = new Object[Math.min(LOCK_STRIPES, sets)];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * @return Cached value, or NaN on a miss (values themselves are never NaN)
+     */
+    double get(long key1, long key2) {
+        int set = setOf(key1, key2);
+        int base = set * WAYS;
+        synchronized (locks[set % locks.length]) {
+            for (int i = base; i < base + WAYS; i++) {
+                if (states[i] != EMPTY && keys1[i] == key1 && keys2[i] == key2) {
+                    states[i] = REFERENCED;
+                    hits.increment();
+                    return values[i];
+                }
+            }
+        }
+        misses.increment();
+        return Double.NaN;
+    }
+
+    void put(long key1, long key2, double value) {
+        int set = setOf(key1, key2);
+        int base = set * WAYS;
+        synchronized (locks[set % locks.length]) {
+            int free = -1;
+            for (int i = base; i < base + WAYS; i++) {
+                if (states[i] == EMPTY) {
+                    if (free < 0) {
+                        free = i;
+                    }
+                } else if (keys1[i] == key1 && keys2[i] == key2) {
+                    values[i] = value;   // another thread computed it first
+                    return;
+                }
+            }
+            if (free < 0) {
+                free = evict(set, base);
+            }
+            keys1[free] = key1;
+            keys2[free] = key2;
+            values[free] = value;
+            states[free] = PRESENT;
+        }
+    }
+
+    long getHits() {
+        return hits.sum();
+    }
+
+    long getMisses() {
+        return misses.sum();
+    }
+
+    long getEvictions() {
+        return evictions.sum();
+    }
+
+    int capacity() {
+        return states.length;
+    }
+
+    // CLOCK: give referenced slots a second chance, evict the first unreferenced one
+    private int evict(int set, int base) {
+        int hand = hands[set];
+        while (states[base + hand] == REFERENCED) {
+            states[base + hand] = PRESENT;
+            hand = (hand + 1) % WAYS;
+        }
+        int victim = base + hand;
+        hands[set] = (byte) ((hand + 1) % WAYS);
+        evictions.increment();
+        return victim;
+    }
+
+    private int setOf(long key1, long key2) {
+        // MurmurHash3 fmix64 over both halves of the key
+        long h = key1 * 0x9E3779B97F4A7C15L + key2;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return (int) h & setMask;
+    }
+}
@@ -0,0 +1,555 @@
+// Project: Retirement Simulator
+// Package: model
+
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Monte Carlo counterpart of {@link RetirementSimulator#variableInvestor}.
+ * Instead of one deterministic list of rates, every path draws its own
+ * random annual returns and compounds the principal over the horizon.
+ *
+ * Paths are grouped into fixed-size blocks and the block range is split
+ * in half recursively on a fork/join pool. Every split hands each half its
+ * own {@link SplittableRandom} derived from the parent, so the random
+ * stream a block sees depends only on the seed and the block index, never
+ * on the number of worker threads. The same seed always reproduces the
+ * same outcomes.
+ *
+ * Time complexity: O(paths * years), spread across all available cores.
+ */
+public class MonteCarloSimulator {
+
+    // Number of paths simulated by one leaf task
+    static final int BLOCK_PATHS = 1024;
+
+    /**
+     * Simulates {@code paths} random growth paths and summarizes the
+     * distribution of ending balances.
+     *
+     * Annual returns are log-normal with the given arithmetic mean and
+     * standard deviation, so a single year can never lose 100% or more
+     * (the same limit {@code variableInvestor} enforces on its rates).
+     *
+     * @param principal  Initial investment (must be >= 0)
+     * @param meanRate   Expected annual return as decimal (e.g., 0.07 for 7%)
+     * @param volatility Standard deviation of annual returns as decimal (>= 0)
+     * @param years      Number of years per path (must be > 0)
+     * @param paths      Number of simulated paths (must be > 0)
+     * @param seed       Seed for the random streams; equal seeds give equal results
+     * @return Distribution of ending balances
+     * @throws IllegalArgumentException if inputs are invalid
+     */
+    public static MonteCarloResult simulate(double principal, double meanRate, double volatility,
+                                            int years, int paths, long seed) {
+        validate(principal, meanRate, volatility, years, paths);
+
+        double[] outcomes = new double[paths];
+        int blocks = blockCount(paths);
+        ForkJoinPool.commonPool().invoke(new PathTask(
+                new SplittableRandom(seed), 0, blocks,
+                principal, logMean(meanRate, volatility), logSigma(meanRate, volatility),
+                years, outcomes, null));
+
+        return new MonteCarloResult(outcomes);
+    }
+
+    /**
+     * Same as {@link #simulate(double, double, double, int, int, long)} but
+     * also writes every path's whole trajectory into {@code store}: period 0
+     * is the principal and period y the balance after y years. The ending
+     * balances (and so the returned summary) are identical to a run without
+     * a store.
+     *
+     * @param store Off-heap store with at least {@code paths} paths and {@code years + 1} periods
+     * @return Distribution of ending balances
+     * @throws IllegalArgumentException if inputs are invalid or the store is too small
+     */
+    public static MonteCarloResult simulate(double principal, double meanRate, double volatility,
+                                            int years, int paths, long seed, PathStore store) {
+        validate(principal, meanRate, volatility, years, paths);
+        if (store.getPaths() < paths || store.getPeriods() < years + 1) {
+            throw new IllegalArgumentException("Store must hold " + paths + " paths of "
+                    + (years + 1) + " periods.");
+        }
+
+        double[] outcomes = new double[paths];
+        int blocks = blockCount(paths);
+        ForkJoinPool.commonPool().invoke(new PathTask(
+                new SplittableRandom(seed), 0, blocks,
+                principal, logMean(meanRate, volatility), logSigma(meanRate, volatility),
+                years, outcomes, store));
+
+        return new MonteCarloResult(outcomes);
+    }
+
+    /**
+     * Same paths as {@link #simulate(double, double, double, int, int, long)},
+     * but summarized in constant memory instead of keeping every outcome:
+     * each block feeds its own {@link StreamingSummary} and the summaries
+     * are merged up the same task tree, so the result is identical on any
+     * number of threads. Mean, standard deviation, min and max equal the
+     * exact values up to rounding; percentiles are t-digest estimates.
+     *
+     * @return Summary of the ending balances
+     * @throws IllegalArgumentException if inputs are invalid
+     */
+    public static StreamingSummary summarize(double principal, double meanRate, double volatility,
+                                             int years, int paths, long seed) {
+        validate(principal, meanRate, volatility, years, paths);
+
+        return ForkJoinPool.commonPool().invoke(new SummaryTask(
+                new SplittableRandom(seed), 0, blockCount(paths), paths,
+                principal, 0.0, logMean(meanRate, volatility), logSigma(meanRate, volatility), years));
+    }
+
+    /**
+     * Monte Carlo counterpart of {@link RetirementSimulator#finallyRetired}:
+     * every path withdraws a fixed amount each year from a balance earning
+     * random returns, for at most {@code years} years. The summary holds the
+     * ending balances (0 once depleted) and, through
+     * {@link StreamingSummary#probabilityDepletedWithin}, the exact share of
+     * paths that ran out within any horizon up to {@code years}.
+     *
+     * @param startingBalance  Initial amount in the retirement account (>= 0)
+     * @param annualWithdrawal Fixed withdrawal amount each year (> 0)
+     * @param meanRate         Expected annual return as decimal
+     * @param volatility       Standard deviation of annual returns as decimal (>= 0)
+     * @param years            Longest horizon simulated (> 0)
+     * @param paths            Number of simulated paths (> 0)
+     * @param seed             Seed for the random streams
+     * @return Summary of ending balances and depletion years
+     * @throws IllegalArgumentException if inputs are invalid
+     */
+    public static StreamingSummary summarizeRetirement(double startingBalance, double annualWithdrawal,
+                                                       double meanRate, double volatility,
+                                                       int years, int paths, long seed) {
+        validate(startingBalance, meanRate, volatility, years, paths);
+        if (!(annualWithdrawal > 0) || Double.isInfinite(annualWithdrawal)) {
+            throw new IllegalArgumentException("Withdrawal amount must be greater than zero(0)");
+        }
+
+        return ForkJoinPool.commonPool().invoke(new SummaryTask(
+                new SplittableRandom(seed), 0, blockCount(paths), paths,
+                startingBalance, annualWithdrawal,
+                logMean(meanRate, volatility), logSigma(meanRate, volatility), years));
+    }
+
+    /**
+     * Cuts the task tree of a {@code paths}-path run into at least
+     * {@code shards} subtrees (fewer if it has fewer leaves), splitting
+     * every node of a level before going a level deeper. Each shard is the
+     * block range [bounds[i], bounds[i + 1]) of one tree node, so it can be
+     * run on its own with {@link #summarizeShard} and put back together with
+     * {@link #mergeShards}.
+     *
+     * @param paths  Number of simulated paths (> 0)
+     * @param shards Desired number of shards (> 0)
+     * @return Shard boundaries in blocks, from 0 to the block count
+     * @throws IllegalArgumentException if inputs are invalid
+     */
+    public static int[] shardBounds(int paths, int shards) {
+        if (paths <= 0) {
+            throw new IllegalArgumentException("Paths must be positive.");
+        }
+        if (shards <= 0) {
+            throw new IllegalArgumentException("Shards must be positive.");
+        }
+        List<Integer> bounds = new ArrayList<>(List.of(0, blockCount(paths)));
+        boolean split = true;
+        while (bounds.size() - 1 < shards && split) {
+            split = false;
+            List<Integer> next = new ArrayList<>();
+            for (int i = 0; i + 1 < bounds.size(); i++) {
+                int from = bounds.get(i);
+                int to = bounds.get(i + 1);
+                next.add(from);
+                if (to - from > 1) {
+                    next.add((from + to) >>> 1);
+                    split = true;
+                }
+            }
+            next.add(bounds.get(bounds.size() - 1));
+            bounds = next;
+        }
+        return bounds.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Summary of one shard: the blocks [fromBlock, toBlock) of the run
+     * {@link #summarize} (withdrawal 0) or {@link #summarizeRetirement}
+     * would do with the same arguments. The shard's random stream is
+     * derived by replaying the splits from the root seed down to its node,
+     * so any process can compute any shard without the others.
+     *
+     * @param startingBalance  Initial amount (>= 0)
+     * @param annualWithdrawal Fixed withdrawal each year, or 0 for pure growth paths
+     * @param meanRate         Expected annual return as decimal
+     * @param volatility       Standard deviation of annual returns as decimal (>= 0)
+     * @param years            Number of years per path (> 0)
+     * @param paths            Number of paths in the whole run (> 0)
+     * @param seed             Seed of the whole run
+     * @param fromBlock        First block of the shard, from {@link #shardBounds}
+     * @param toBlock          End block of the shard (exclusive)
+     * @return Summary of the shard's paths
+     * @throws IllegalArgumentException if inputs are invalid or the range is not a tree node
+     */
+    public static StreamingSummary summarizeShard(double startingBalance, double annualWithdrawal,
+                                                  double meanRate, double volatility, int years,
+                                                  int paths, long seed, int fromBlock, int toBlock) {
+        validate(startingBalance, meanRate, volatility, years, paths);
+        if (!(annualWithdrawal >= 0) || Double.isInfinite(annualWithdrawal)) {
+            throw new IllegalArgumentException("Withdrawal must be non-negative.");
+        }
+
+        // Same splits, in the same order, as SummaryTask.compute
+        SplittableRandom random = new SplittableRandom(seed);
+        int from = 0;
+        int to = blockCount(paths);
+        while (from != fromBlock || to != toBlock) {
+            int mid = (from + to) >>> 1;
+            if (to - from == 1 || fromBlock < from || toBlock > to || (fromBlock < mid && toBlock > mid)) {
+                throw new IllegalArgumentException("Blocks " + fromBlock + ".." + toBlock
+                        + " are not a shard of a " + paths + "-path run.");
+            }
+            SplittableRandom left = random.split();
+            SplittableRandom right = random.split();
+            if (toBlock <= mid) {
+                random = left;
+                to = mid;
+            } else {
+                random = right;
+                from = mid;
+            }
+        }
+        return ForkJoinPool.commonPool().invoke(new SummaryTask(
+                random, fromBlock, toBlock, paths, startingBalance, annualWithdrawal,
+                logMean(meanRate, volatility), logSigma(meanRate, volatility), years));
+    }
+
+    /**
+     * Merges shard summaries up the task tree, left then right at every
+     * node, exactly as the single-process run merges its blocks. The result
+     * is bit-identical to {@link #summarize} / {@link #summarizeRetirement}.
+     * The shard summaries are consumed.
+     *
+     * @param bounds Shard boundaries from {@link #shardBounds}
+     * @param parts  parts[i] = summary of shard [bounds[i], bounds[i + 1])
+     * @return Summary of the whole run
+     * @throws IllegalArgumentException if the parts do not match the bounds
+     */
+    public static StreamingSummary mergeShards(int[] bounds, StreamingSummary[] parts) {
+        if (bounds == null || parts == null || bounds.length < 2 || parts.length != bounds.length - 1
+                || bounds[0] != 0) {
+            throw new IllegalArgumentException("Every shard needs exactly one summary.");
+        }
+        return mergeShards(bounds, parts, 0, bounds[bounds.length - 1]);
+    }
+
+    private static StreamingSummary mergeShards(int[] bounds, StreamingSummary[] parts, int from, int to) {
+        int i = Arrays.binarySearch(bounds, from);
+        if (i >= 0 && i + 1 < bounds.length && bounds[i + 1] == to) {
+            if (parts[i] == null) {
+                throw new IllegalArgumentException("Shard " + i + " has no summary.");
+            }
+            return parts[i];
+        }
+        if (to - from == 1) {
+            throw new IllegalArgumentException("Shard bounds do not follow the task tree.");
+        }
+        int mid = (from + to) >>> 1;
+        StreamingSummary left = mergeShards(bounds, parts, from, mid);
+        return left.merge(mergeShards(bounds, parts, mid, to));
+    }
+
+    static void validate(double principal, double meanRate, double volatility, int years, int paths) {
+        if (principal < 0) {
+            throw new IllegalArgumentException("Principal must be non-negative.");
+        }
+        if (Double.isNaN(meanRate) || Double.isInfinite(meanRate)
+                || Double.isNaN(volatility) || Double.isInfinite(volatility)) {
+            throw new IllegalArgumentException("Rates must be finite numbers.");
+        }
+        if (meanRate <= -1.0) {
+            throw new IllegalArgumentException("Rate cannot be less than -100%.");
+        }
+        if (volatility < 0) {
+            throw new IllegalArgumentException("Volatility must be non-negative.");
+        }
+        if (years <= 0) {
+            throw new IllegalArgumentException("Years must be positive.");
+        }
+        if (paths <= 0) {
+            throw new IllegalArgumentException("Paths must be positive.");
+        }
+    }
+
+    static int blockCount(int paths) {
+        return (paths + BLOCK_PATHS - 1) / BLOCK_PATHS;
+    }
+
+    // Log-normal parameters matching an arithmetic mean m and standard deviation s:
+    //      sigma^2 = ln(1 + s^2 / (1 + m)^2),   mu = ln(1 + m) - sigma^2 / 2
+    static double logSigma(double meanRate, double volatility) {
+        double growth = 1.0 + meanRate;
+        return Math.sqrt(Math.log1p((volatility * volatility) / (growth * growth)));
+    }
+
+    static double logMean(double meanRate, double volatility) {
+        double sigma = logSigma(meanRate, volatility);
+        return Math.log1p(meanRate) - 0.5 * sigma * sigma;
+    }
+
+    /**
+     * Fills outcomes for the block range [fromBlock, toBlock). Splits at the
+     * midpoint until a single block remains, so the task tree (and therefore
+     * the random stream of every block) is fixed by the path count alone.
+     */
+    private static final class PathTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final SplittableRandom random;
+        private final int fromBlock;
+        private final int toBlock;
+        private final double principal;
+        private final double mu;
+        private final double sigma;
+        private final int years;
+        private final double[] outcomes;
+        private final PathStore store;     // null when only ending balances are kept
+
+        PathTask(SplittableRandom random, int fromBlock, int toBlock, double principal,
+                 double mu, double sigma, int years, double[] outcomes, PathStore store) {
+            this.random = random;
+            this.fromBlock = fromBlock;
+            this.toBlock = toBlock;
+            this.principal = principal;
+            this.mu = mu;
+            this.sigma = sigma;
+            this.years = years;
+            this.outcomes = outcomes;
+            this.store = store;
+        }
+
+        @Override
+        protected void compute() {
+            if (toBlock - fromBlock == 1) {
+                simulateBlock();
+                return;
+            }
+            int mid = (fromBlock + toBlock) >>> 1;
+            // Derive both children before forking so the split order is fixed
+            PathTask left = new PathTask(random.split(), fromBlock, mid,
+                    principal, mu, sigma, years, outcomes, store);
+            PathTask right = new PathTask(random.split(), mid, toBlock,
+                    principal, mu, sigma, years, outcomes, store);
+            invokeAll(left, right);
+        }
+
+        private void simulateBlock() {
+            int start = fromBlock * BLOCK_PATHS;
+            int end = Math.min(start + BLOCK_PATHS, outcomes.length);
+            if (store != null) {
+                recordBlock(start, end);
+                return;
+            }
+
+            // Rates are drawn in place: the sum of log growth factors replaces
+            // the per-path double[] of rates that variableInvestor would need.
+            for (int p = start; p < end; p++) {
+                double logGrowth = 0.0;
+                for (int y = 0; y < years; y++) {
+                    logGrowth += mu + sigma * random.nextGaussian();
+                }
+                outcomes[p] = principal * Math.exp(logGrowth);
+            }
+        }
+
+        // Same draws in the same order as simulateBlock, plus the balance after every year
+        private void recordBlock(int start, int end) {
+            for (int p = start; p < end; p++) {
+                double logGrowth = 0.0;
+                store.set(p, 0, principal);
+                for (int y = 0; y < years; y++) {
+                    logGrowth += mu + sigma * random.nextGaussian();
+                    store.set(p, y + 1, principal * Math.exp(logGrowth));
+                }
+                outcomes[p] = principal * Math.exp(logGrowth);
+            }
+        }
+    }
+
+    /**
+     * Summarizes the block range [fromBlock, toBlock) with the same split
+     * tree and random streams as {@link PathTask}, merging the children's
+     * summaries left then right.
+     */
+    private static final class SummaryTask extends RecursiveTask<StreamingSummary> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final SplittableRandom random;
+        private final int fromBlock;
+        private final int toBlock;
+        private final int paths;
+        private final double principal;
+        private final double withdrawal;   // 0 for pure growth paths
+        private final double mu;
+        private final double sigma;
+        private final int years;
+
+        SummaryTask(SplittableRandom random, int fromBlock, int toBlock, int paths, double principal,
+                    double withdrawal, double mu, double sigma, int years) {
+            this.random = random;
+            this.fromBlock = fromBlock;
+            this.toBlock = toBlock;
+            this.paths = paths;
+            this.principal = principal;
+            this.withdrawal = withdrawal;
+            this.mu = mu;
+            this.sigma = sigma;
+            this.years = years;
+        }
+
+        @Override
+        protected StreamingSummary compute() {
+            if (toBlock - fromBlock == 1) {
+                return summarizeBlock();
+            }
+            int mid = (fromBlock + toBlock) >>> 1;
+            SummaryTask left = new SummaryTask(random.split(), fromBlock, mid, paths,
+                    principal, withdrawal, mu, sigma, years);
+            SummaryTask right = new SummaryTask(random.split(), mid, toBlock, paths,
+                    principal, withdrawal, mu, sigma, years);
+            invokeAll(left, right);
+            return left.getRawResult().merge(right.getRawResult());
+        }
+
+        private StreamingSummary summarizeBlock() {
+            int start = fromBlock * BLOCK_PATHS;
+            int end = Math.min(start + BLOCK_PATHS, paths);
+            StreamingSummary summary = new StreamingSummary();
+
+            for (int p = start; p < end; p++) {
+                if (withdrawal == 0.0) {
+                    // Same arithmetic as PathTask.simulateBlock
+                    double logGrowth = 0.0;
+                    for (int y = 0; y < years; y++) {
+                        logGrowth += mu + sigma * random.nextGaussian();
+                    }
+                    summary.add(principal * Math.exp(logGrowth));
+                    continue;
+                }
+
+                // Same recurrence as finallyRetired, one random return per year
+                double balance = principal;
+                int depletedIn = AnalyticSimulator.NEVER_DEPLETES;
+                for (int y = 1; y <= years; y++) {
+                    balance = balance * Math.exp(mu + sigma * random.nextGaussian()) - withdrawal;
+                    if (balance <= 0.0) {
+                        depletedIn = y;
+                        balance = 0.0;
+                        break;
+                    }
+                }
+                summary.add(balance);
+                summary.addDepletion(depletedIn);
+            }
+            return summary;
+        }
+    }
+
+    /**
+     * Summary of a Monte Carlo run. Outcomes are kept sorted so any
+     * percentile or target probability can be queried afterwards.
+     */
+    public static final class MonteCarloResult {
+
+        private final double[] sorted;
+        private final double mean;
+        private final double stdDev;
+
+        MonteCarloResult(double[] outcomes) {
+            Arrays.parallelSort(outcomes);
+            this.sorted = outcomes;
+
+            // Welford's running mean/variance over the sorted outcomes
+            double m = 0.0;
+            double m2 = 0.0;
+            for (int i = 0; i < outcomes.length; i++) {
+                double delta = outcomes[i] - m;
+                m += delta / (i + 1);
+                m2 += delta * (outcomes[i] - m);
+            }
+            this.mean = m;
+            this.stdDev = outcomes.length > 1 ? Math.sqrt(m2 / (outcomes.length - 1)) : 0.0;
+        }
+
+        /** @return Number of simulated paths */
+        public int getPaths() {
+            return sorted.length;
+        }
+
+        /** @return Mean ending balance */
+        public double getMean() {
+            return mean;
+        }
+
+        /** @return Sample standard deviation of the ending balance */
+        public double getStdDev() {
+            return stdDev;
+        }
+
+        /** @return Smallest ending balance */
+        public double getMin() {
+            return sorted[0];
+        }
+
+        /** @return Largest ending balance */
+        public double getMax() {
+            return sorted[sorted.length - 1];
+        }
+
+        /**
+         * Nearest-rank percentile of the ending balance.
+         *
+         * @param percent Percentile between 0 and 100 (e.g., 5 for P5)
+         * @return Ending balance at that percentile
+         * @throws IllegalArgumentException if percent is out of range
+         */
+        public double percentile(double percent) {
+            if (!(percent >= 0.0 && percent <= 100.0)) {
+                throw new IllegalArgumentException("Percentile must be between 0 and 100.");
+            }
+            int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+            return sorted[Math.max(0, rank - 1)];
+        }
+
+        /**
+         * @param target Balance to beat
+         * @return Fraction of paths whose ending balance is strictly above the target
+         */
+        public double probabilityAbove(double target) {
+            // First index whose value is > target
+            int lo = 0;
+            int hi = sorted.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (sorted[mid] > target) {
+                    hi = mid;
+                } else {
+                    lo = mid + 1;
+                }
+            }
+            return (double) (sorted.length - lo) / sorted.length;
+        }
+    }
+}
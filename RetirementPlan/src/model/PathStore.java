@@ -0,0 +1,255 @@
+// Project: Retirement Simulator
+// Package: model
+
+package model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Balance trajectories of many simulated paths, kept outside the Java heap.
+ *
+ * A {@code double[paths][years]} of a few million paths is hundreds of
+ * megabytes of heap that every full GC has to walk. This store keeps one
+ * column per period instead, each a native-order {@link DoubleBuffer} over
+ * either direct memory ({@link #allocate}) or a memory-mapped scratch file
+ * ({@link #mapped}), so the data is invisible to the GC and a mapped store
+ * can even exceed physical memory. Column layout means "all paths at year
+ * t" is one contiguous scan, which is what the per-period queries need:
+ * {@link #percentile} selects in place with a radix select (no sorting, no
+ * copy onto the heap) and {@link #maxDrawdowns} sweeps the columns in order.
+ *
+ * Writes to different paths may come from different threads; the
+ * simulators fill disjoint path ranges in parallel.
+ *
+ * Direct memory is limited by {@code -XX:MaxDirectMemorySize} (by default
+ * the heap size); mapped stores are limited only by disk space. Memory is
+ * returned once the store is unreachable; {@link #close()} deletes a
+ * mapped store's scratch file immediately.
+ */
+public final class PathStore implements AutoCloseable {
+
+    // Largest column a single buffer can address
+    private static final int MAX_PATHS = Integer.MAX_VALUE / Double.BYTES;
+    private static final int RADIX_BITS = 16;
+    private static final int PARALLEL_CHUNK = 1 << 16;
+
+    private final int paths;
+    private final DoubleBuffer[] columns;
+    private final Path scratchFile;      // null for direct memory
+
+    private PathStore(int paths, DoubleBuffer[] columns, Path scratchFile) {
+        this.paths = paths;
+        this.columns = columns;
+        this.scratchFile = scratchFile;
+    }
+
+    /**
+     * Allocates a store in direct (off-heap) memory, initialized to zero.
+     *
+     * @param paths   Number of paths (> 0)
+     * @param periods Number of stored periods per path (> 0), e.g. years + 1
+     * @return New store
+     * @throws IllegalArgumentException if a size is out of range
+     */
+    public static PathStore allocate(int paths, int periods) {
+        checkSize(paths, periods);
+        DoubleBuffer[] columns = new DoubleBuffer[periods];
+        for (int t = 0; t < periods; t++) {
+            columns[t] = ByteBuffer.allocateDirect(paths * Double.BYTES)
+                    .order(ByteOrder.nativeOrder()).asDoubleBuffer();
+        }
+        return new PathStore(paths, columns, null);
+    }
+
+    /**
+     * Creates a store backed by a new memory-mapped scratch file in
+     * {@code directory}. The file is deleted by {@link #close()}.
+     *
+     * @param directory Directory for the scratch file
+     * @param paths     Number of paths (> 0)
+     * @param periods   Number of stored periods per path (> 0)
+     * @return New store
+     * @throws IOException              if the file cannot be created or mapped
+     * @throws IllegalArgumentException if a size is out of range
+     */
+    public static PathStore mapped(Path directory, int paths, int periods) throws IOException {
+        checkSize(paths, periods);
+        Path file = Files.createTempFile(directory, "paths", ".bin");
+        long columnBytes = (long) paths * Double.BYTES;
+        DoubleBuffer[] columns = new DoubleBuffer[periods];
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // Mappings stay valid after the channel is closed
+            for (int t = 0; t < periods; t++) {
+                columns[t] = channel.map(FileChannel.MapMode.READ_WRITE, t * columnBytes, columnBytes)
+                        .order(ByteOrder.nativeOrder()).asDoubleBuffer();
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return new PathStore(paths, columns, file);
+    }
+
+    private static void checkSize(int paths, int periods) {
+        if (paths <= 0 || paths > MAX_PATHS) {
+            throw new IllegalArgumentException("Paths must be between 1 and " + MAX_PATHS + ".");
+        }
+        if (periods <= 0) {
+            throw new IllegalArgumentException("Periods must be positive.");
+        }
+    }
+
+    /** @return Number of paths */
+    public int getPaths() {
+        return paths;
+    }
+
+    /** @return Number of stored periods per path */
+    public int getPeriods() {
+        return columns.length;
+    }
+
+    /** Stores the balance of {@code path} at {@code period}. */
+    public void set(int path, int period, double balance) {
+        columns[period].put(path, balance);
+    }
+
+    /** @return Balance of {@code path} at {@code period} */
+    public double get(int path, int period) {
+        return columns[period].get(path);
+    }
+
+    /**
+     * @return Read-only view of every path's balance at {@code period}; no data is copied
+     */
+    public DoubleBuffer column(int period) {
+        return columns[period].asReadOnlyBuffer();
+    }
+
+    /**
+     * Nearest-rank percentile of the balances at one period, the same
+     * definition as {@link MonteCarloSimulator.MonteCarloResult#percentile}.
+     * Found by a four-pass radix select over the column, so it costs O(paths)
+     * and never copies or reorders the stored data.
+     *
+     * @param period  Period to query
+     * @param percent Percentile between 0 and 100
+     * @return Balance at that percentile
+     * @throws IllegalArgumentException if percent is out of range
+     */
+    public double percentile(int period, double percent) {
+        return select(columns[period], paths, rank(percent, paths));
+    }
+
+    /**
+     * Largest peak-to-trough loss of every path, relative to its running
+     * peak: max over t of (peak_t - B_t) / peak_t. Periods before the first
+     * positive balance count as no loss, and a balance below zero (a path
+     * that withdrew more than it had) counts as losing everything. Columns
+     * are swept in order and path ranges run in parallel; the result is
+     * itself off-heap.
+     *
+     * @return Read-only buffer with one drawdown per path (0 = never fell, 1 = lost everything)
+     */
+    public DoubleBuffer maxDrawdowns() {
+        DoubleBuffer peaks = ByteBuffer.allocateDirect(paths * Double.BYTES)
+                .order(ByteOrder.nativeOrder()).asDoubleBuffer();
+        DoubleBuffer drawdowns = ByteBuffer.allocateDirect(paths * Double.BYTES)
+                .order(ByteOrder.nativeOrder()).asDoubleBuffer();
+        int chunks = (paths + PARALLEL_CHUNK - 1) / PARALLEL_CHUNK;
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            int from = c * PARALLEL_CHUNK;
+            int to = Math.min(from + PARALLEL_CHUNK, paths);
+            for (DoubleBuffer column : columns) {
+                for (int p = from; p < to; p++) {
+                    double balance = column.get(p);
+                    double peak = Math.max(peaks.get(p), balance);
+                    peaks.put(p, peak);
+                    if (peak > 0.0) {
+                        double loss = Math.min(1.0, (peak - balance) / peak);
+                        drawdowns.put(p, Math.max(drawdowns.get(p), loss));
+                    }
+                }
+            }
+        });
+        return drawdowns.asReadOnlyBuffer();
+    }
+
+    /**
+     * Nearest-rank percentile of the paths' maximum drawdowns (e.g. 95 for
+     * "95% of paths never lost more than this from a peak").
+     *
+     * @param percent Percentile between 0 and 100
+     * @return Drawdown at that percentile
+     * @throws IllegalArgumentException if percent is out of range
+     */
+    public double drawdownPercentile(double percent) {
+        long rank = rank(percent, paths);
+        return select(maxDrawdowns(), paths, rank);
+    }
+
+    /**
+     * Deletes the scratch file of a mapped store. Buffers already handed out
+     * stay readable until they are collected.
+     *
+     * @throws IOException if the file cannot be deleted
+     */
+    @Override
+    public void close() throws IOException {
+        if (scratchFile != null) {
+            Files.deleteIfExists(scratchFile);
+        }
+    }
+
+    private static long rank(double percent, int count) {
+        if (!(percent >= 0.0 && percent <= 100.0)) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100.");
+        }
+        return Math.max(1, (long) Math.ceil(percent / 100.0 * count));
+    }
+
+    // Value of the given 1-based rank among values[0, count). Doubles are mapped
+    // to longs whose unsigned order is numeric order, then the key is fixed
+    // RADIX_BITS at a time from the top, each pass counting only the values
+    // that still match the prefix found so far.
+    static double select(DoubleBuffer values, int count, long rank) {
+        int[] histogram = new int[1 << RADIX_BITS];
+        long prefix = 0;
+        long remaining = rank;
+        for (int shift = Long.SIZE - RADIX_BITS; shift >= 0; shift -= RADIX_BITS) {
+            Arrays.fill(histogram, 0);
+            int high = shift + RADIX_BITS;    // bits above this pass are already fixed
+            for (int i = 0; i < count; i++) {
+                long key = sortableKey(values.get(i));
+                if (high == Long.SIZE || (key >>> high) == (prefix >>> high)) {
+                    histogram[(int) (key >>> shift) & ((1 << RADIX_BITS) - 1)]++;
+                }
+            }
+            int digit = 0;
+            while (remaining > histogram[digit]) {
+                remaining -= histogram[digit];
+                digit++;
+            }
+            prefix |= (long) digit << shift;
+        }
+        return fromSortableKey(prefix);
+    }
+
+    private static long sortableKey(double value) {
+        long bits = Double.doubleToLongBits(value);
+        return (bits >= 0) ? bits ^ Long.MIN_VALUE : ~bits;
+    }
+
+    private static double fromSortableKey(long key) {
+        return Double.longBitsToDouble((key < 0) ? key ^ Long.MIN_VALUE : ~key);
+    }
+}
@@ -0,0 +1,247 @@
+// Project: Retirement Simulator
+// Package: model
+
+package model;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Multi-asset counterpart of {@link MonteCarloSimulator}: a target
+ * allocation across asset classes (e.g. stocks, bonds, cash) whose annual
+ * returns are correlated, with optional periodic rebalancing.
+ *
+ * Each asset's annual return is log-normal with the given arithmetic mean
+ * and standard deviation (same parameterisation as the single-asset
+ * simulator); the correlation matrix applies to the underlying normals. It
+ * is factored once, C = L * L^T, and correlated draws are x = L * z.
+ *
+ * Paths are simulated in blocks of {@link MonteCarloSimulator#BLOCK_PATHS}.
+ * For every year a block first draws all of its independent normals
+ * (asset-major, one contiguous array per asset), then applies L as a few
+ * multiply-add sweeps over those arrays, so the inner loops are plain
+ * array arithmetic the JIT can vectorize. Between rebalancing dates each
+ * asset only accumulates its log growth; {@code Math.exp} runs once per
+ * asset per rebalance instead of every year. Blocks are split over a
+ * fork/join pool exactly like {@link MonteCarloSimulator}, so equal seeds
+ * give equal results on any number of threads.
+ */
+public final class Portfolio {
+
+    private final double[] weights;
+    private final double[] mu;
+    private final double[] sigma;
+    private final double[][] cholesky;     // lower triangle of the correlation factor
+
+    /**
+     * @param weights      Target allocation per asset (>= 0, summing to 1)
+     * @param meanRates    Expected annual return per asset as decimal
+     * @param volatilities Standard deviation of annual returns per asset (>= 0)
+     * @param correlation  Correlation matrix of the assets (symmetric, unit
+     *                     diagonal, positive semi-definite)
+     * @throws IllegalArgumentException if inputs are invalid
+     */
+    public Portfolio(double[] weights, double[] meanRates, double[] volatilities, double[][] correlation) {
+        if (weights == null || weights.length == 0) {
+            throw new IllegalArgumentException("Weights cannot be null or empty.");
+        }
+        int n = weights.length;
+        if (meanRates == null || volatilities == null || correlation == null
+                || meanRates.length != n || volatilities.length != n || correlation.length != n) {
+            throw new IllegalArgumentException("Every asset needs a weight, mean, volatility and correlation row.");
+        }
+        double total = 0.0;
+        for (double w : weights) {
+            if (!(w >= 0.0) || Double.isInfinite(w)) {
+                throw new IllegalArgumentException("Weights must be non-negative numbers.");
+            }
+            total += w;
+        }
+        if (Math.abs(total - 1.0) > 1e-9) {
+            throw new IllegalArgumentException("Weights must sum to 1.");
+        }
+
+        this.weights = weights.clone();
+        this.mu = new double[n];
+        this.sigma = new double[n];
+        for (int i = 0; i < n; i++) {
+            // Validation messages match the single-asset simulator
+            MonteCarloSimulator.validate(0.0, meanRates[i], volatilities[i], 1, 1);
+            mu[i] = MonteCarloSimulator.logMean(meanRates[i], volatilities[i]);
+            sigma[i] = MonteCarloSimulator.logSigma(meanRates[i], volatilities[i]);
+        }
+        this.cholesky = factor(correlation);
+    }
+
+    /** @return Number of assets */
+    public int getAssets() {
+        return weights.length;
+    }
+
+    /**
+     * Simulates {@code paths} random paths of the whole portfolio.
+     *
+     * @param principal      Initial investment, split by the target weights (must be >= 0)
+     * @param rebalanceYears Restore the target weights every this many years;
+     *                       0 means buy-and-hold
+     * @param years          Number of years per path (must be > 0)
+     * @param paths          Number of simulated paths (must be > 0)
+     * @param seed           Seed for the random streams; equal seeds give equal results
+     * @return Distribution of ending portfolio values
+     * @throws IllegalArgumentException if inputs are invalid
+     */
+    public MonteCarloSimulator.MonteCarloResult simulate(double principal, int rebalanceYears,
+                                                         int years, int paths, long seed) {
+        MonteCarloSimulator.validate(principal, 0.0, 0.0, years, paths);
+        if (rebalanceYears < 0) {
+            throw new IllegalArgumentException("Rebalancing period must be non-negative.");
+        }
+        double[] outcomes = new double[paths];
+        ForkJoinPool.commonPool().invoke(new BlockTask(new SplittableRandom(seed),
+                0, MonteCarloSimulator.blockCount(paths), principal,
+                rebalanceYears == 0 ? years : rebalanceYears, years, outcomes));
+        return new MonteCarloSimulator.MonteCarloResult(outcomes);
+    }
+
+    // Cholesky-Banachiewicz; a zero pivot (perfectly dependent assets) leaves its column zero
+    private static double[][] factor(double[][] c) {
+        int n = c.length;
+        // Every row first: the symmetry check below reads c[j][i] for rows not yet visited
+        for (int i = 0; i < n; i++) {
+            if (c[i] == null || c[i].length != n) {
+                throw new IllegalArgumentException("Correlation matrix must be square.");
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                double v = c[i][j];
+                if (!(Math.abs(v) <= 1.0) || Math.abs(v - c[j][i]) > 1e-12 || (i == j && v != 1.0)) {
+                    throw new IllegalArgumentException(
+                            "Correlation matrix must be symmetric with ones on the diagonal.");
+                }
+            }
+        }
+        double[][] l = new double[n][];
+        for (int i = 0; i < n; i++) {
+            l[i] = new double[i + 1];
+            for (int j = 0; j <= i; j++) {
+                double sum = c[i][j];
+                for (int k = 0; k < j; k++) {
+                    sum -= l[i][k] * l[j][k];
+                }
+                if (i == j) {
+                    if (sum < -1e-10) {
+                        throw new IllegalArgumentException("Correlation matrix must be positive semi-definite.");
+                    }
+                    l[i][i] = Math.sqrt(Math.max(0.0, sum));
+                } else {
+                    l[i][j] = (l[j][j] == 0.0) ? 0.0 : sum / l[j][j];
+                }
+            }
+        }
+        return l;
+    }
+
+    /**
+     * Fills outcomes for the block range [fromBlock, toBlock), splitting at
+     * the midpoint like MonteCarloSimulator's PathTask.
+     */
+    private final class BlockTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final SplittableRandom random;
+        private final int fromBlock;
+        private final int toBlock;
+        private final double principal;
+        private final int rebalanceYears;
+        private final int years;
+        private final double[] outcomes;
+
+        BlockTask(SplittableRandom random, int fromBlock, int toBlock, double principal,
+                  int rebalanceYears, int years, double[] outcomes) {
+            this.random = random;
+            this.fromBlock = fromBlock;
+            this.toBlock = toBlock;
+            this.principal = principal;
+            this.rebalanceYears = rebalanceYears;
+            this.years = years;
+            this.outcomes = outcomes;
+        }
+
+        @Override
+        protected void compute() {
+            if (toBlock - fromBlock == 1) {
+                simulateBlock();
+                return;
+            }
+            int mid = (fromBlock + toBlock) >>> 1;
+            // Derive both children before forking so the split order is fixed
+            BlockTask left = new BlockTask(random.split(), fromBlock, mid,
+                    principal, rebalanceYears, years, outcomes);
+            BlockTask right = new BlockTask(random.split(), mid, toBlock,
+                    principal, rebalanceYears, years, outcomes);
+            invokeAll(left, right);
+        }
+
+        private void simulateBlock() {
+            int start = fromBlock * MonteCarloSimulator.BLOCK_PATHS;
+            int size = Math.min(MonteCarloSimulator.BLOCK_PATHS, outcomes.length - start);
+            int assets = weights.length;
+
+            double[][] z = new double[assets][size];          // independent normals
+            double[][] logGrowth = new double[assets][size];  // since the last rebalance
+            double[] value = new double[size];                // portfolio value at the last rebalance
+            Arrays.fill(value, principal);
+
+            int sinceRebalance = 0;
+            for (int year = 1; year <= years; year++) {
+                for (int j = 0; j < assets; j++) {
+                    double[] zj = z[j];
+                    for (int p = 0; p < size; p++) {
+                        zj[p] = random.nextGaussian();
+                    }
+                }
+                // logGrowth_i += sigma_i * (L z)_i; the drift mu_i is added at rebalance time
+                for (int i = 0; i < assets; i++) {
+                    double[] g = logGrowth[i];
+                    for (int j = 0; j <= i; j++) {
+                        double coefficient = sigma[i] * cholesky[i][j];
+                        if (coefficient == 0.0) {
+                            continue;
+                        }
+                        double[] zj = z[j];
+                        for (int p = 0; p < size; p++) {
+                            g[p] += coefficient * zj[p];
+                        }
+                    }
+                }
+                sinceRebalance++;
+                if (sinceRebalance == rebalanceYears || year == years) {
+                    rebalance(value, logGrowth, sinceRebalance, size);
+                    sinceRebalance = 0;
+                }
+            }
+            System.arraycopy(value, 0, outcomes, start, size);
+        }
+
+        // value <- value * sum_i w_i * exp(logGrowth_i + k * mu_i), then back to the target weights
+        private void rebalance(double[] value, double[][] logGrowth, int k, int size) {
+            double[] factor = new double[size];
+            for (int i = 0; i < weights.length; i++) {
+                double w = weights[i];
+                double drift = k * mu[i];
+                double[] g = logGrowth[i];
+                for (int p = 0; p < size; p++) {
+                    factor[p] += w * Math.exp(g[p] + drift);
+                    g[p] = 0.0;
+                }
+            }
+            for (int p = 0; p < size; p++) {
+                value[p] *= factor[p];
+            }
+        }
+    }
+}
@@ -0,0 +1,310 @@
+// Project: Retirement Simulator
+// Package: model
+
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Editable variable-rate schedule for what-if analysis.
+ *
+ * {@link RetirementSimulator#variableInvestor} multiplies the principal by
+ * every (1 + rate) in the list, so one edited year means a full O(n) rescan.
+ * This schedule keeps the growth factors in a segment tree whose nodes hold
+ * the product of their range. Changing one year, or setting a whole range
+ * of years to one rate, touches O(log n) nodes; range edits are stored
+ * lazily as "every year here grows by f", whose product is f^length. The
+ * future value is the root's product, and the value after k years is a
+ * prefix product, both O(log n) without replaying from year 0.
+ *
+ * Products are kept as a mantissa in [1, 2) and a separate binary
+ * exponent, so a long run of large factors followed by small ones cannot
+ * overflow (or underflow) a node's product even though the final value is
+ * in range. Results match variableInvestor up to floating-point rounding
+ * (products are grouped differently); where variableInvestor's running
+ * balance itself overflows to infinity this schedule still returns the
+ * finite answer. Not thread-safe.
+ */
+public final class RateSchedule {
+
+    private final int years;
+    // Product of growth factors over the node's range is mantissa * 2^exponent
+    private final double[] mantissa;
+    private final long[] exponent;
+    private final double[] pending;   // growth factor assigned to the whole range, or NaN
+
+    // Result of the last power() or prefix() call, in the same scaled form
+    private double scaledMantissa;
+    private long scaledExponent;
+
+    /**
+     * Builds a schedule in O(n).
+     *
+     * @param ratesList Annual interest rates as decimals, year 1 first
+     * @throws IllegalArgumentException if the list is empty or a rate is invalid
+     */
+    public RateSchedule(double[] ratesList) {
+        if (ratesList == null || ratesList.length == 0) {
+            throw new IllegalArgumentException("Rates list cannot be null or empty.");
+        }
+        for (double rate : ratesList) {
+            validateRate(rate);
+        }
+        this.years = ratesList.length;
+        this.mantissa = new double[4 * years];
+        this.exponent = new long[4 * years];
+        this.pending = new double[4 * years];
+        Arrays.fill(pending, Double.NaN);
+        build(1, 0, years, ratesList);
+    }
+
+    /** @return Number of years in the schedule */
+    public int getYears() {
+        return years;
+    }
+
+    /**
+     * @param year Year index, 0 for the first year
+     * @return Rate applied in that year
+     */
+    public double getRate(int year) {
+        checkYear(year);
+        return leaf(1, 0, years, year) - 1.0;
+    }
+
+    /**
+     * Changes the rate of one year. O(log n).
+     *
+     * @param year Year index, 0 for the first year
+     * @param rate New annual rate as decimal
+     * @throws IllegalArgumentException if the year or rate is invalid
+     */
+    public void setRate(int year, double rate) {
+        checkYear(year);
+        validateRate(rate);
+        assign(1, 0, years, year, year + 1, 1.0 + rate);
+    }
+
+    /**
+     * Sets every year in [fromYear, toYear) to the same rate. O(log n).
+     *
+     * @param fromYear First year index to change (inclusive)
+     * @param toYear   Last year index to change (exclusive)
+     * @param rate     New annual rate as decimal
+     * @throws IllegalArgumentException if the range or rate is invalid
+     */
+    public void setRange(int fromYear, int toYear, double rate) {
+        if (fromYear < 0 || toYear > years || fromYear > toYear) {
+            throw new IllegalArgumentException("Year range must lie within 0.." + years + ".");
+        }
+        validateRate(rate);
+        if (fromYear < toYear) {
+            assign(1, 0, years, fromYear, toYear, 1.0 + rate);
+        }
+    }
+
+    /**
+     * Same result as {@link RetirementSimulator#variableInvestor} on the
+     * current rates, in O(1).
+     *
+     * @param principal Initial investment (must be >= 0)
+     * @return Future value after every year of the schedule
+     * @throws IllegalArgumentException if principal is negative
+     */
+    public double futureValue(double principal) {
+        validatePrincipal(principal);
+        return scale(principal, mantissa[1], exponent[1]);
+    }
+
+    /**
+     * Balance after the first {@code year} years, in O(log n).
+     *
+     * @param principal Initial investment (must be >= 0)
+     * @param year      Number of years compounded (0 gives the principal back)
+     * @return Balance after that many years
+     * @throws IllegalArgumentException if inputs are invalid
+     */
+    public double valueAt(double principal, int year) {
+        validatePrincipal(principal);
+        if (year < 0 || year > years) {
+            throw new IllegalArgumentException("Year must be between 0 and " + years + ".");
+        }
+        scaledMantissa = 1.0;
+        scaledExponent = 0;
+        prefix(1, 0, years, year);
+        return scale(principal, scaledMantissa, scaledExponent);
+    }
+
+    /** @return Copy of the current rates, e.g. to pass to variableInvestor */
+    public double[] toArray() {
+        double[] rates = new double[years];
+        for (int y = 0; y < years; y++) {
+            rates[y] = getRate(y);
+        }
+        return rates;
+    }
+
+    private void build(int node, int lo, int hi, double[] rates) {
+        if (hi - lo == 1) {
+            store(node, 1.0 + rates[lo], 0);
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        build(2 * node, lo, mid, rates);
+        build(2 * node + 1, mid, hi, rates);
+        pull(node);
+    }
+
+    // Sets every factor in [from, to) to `factor` within the node covering [lo, hi)
+    private void assign(int node, int lo, int hi, int from, int to, double factor) {
+        if (from <= lo && hi <= to) {
+            apply(node, hi - lo, factor);
+            return;
+        }
+        push(node, lo, hi);
+        int mid = (lo + hi) >>> 1;
+        if (from < mid) {
+            assign(2 * node, lo, mid, from, to, factor);
+        }
+        if (to > mid) {
+            assign(2 * node + 1, mid, hi, from, to, factor);
+        }
+        pull(node);
+    }
+
+    // Multiplies the factors of years [lo, min(hi, end)) into scaledMantissa/scaledExponent
+    private void prefix(int node, int lo, int hi, int end) {
+        if (end <= lo) {
+            return;
+        }
+        if (hi <= end) {
+            multiply(mantissa[node], exponent[node]);
+            return;
+        }
+        if (!Double.isNaN(pending[node])) {
+            double m = scaledMantissa;
+            long e = scaledExponent;
+            power(pending[node], end - lo);
+            multiply(m, e);
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        prefix(2 * node, lo, mid, end);
+        prefix(2 * node + 1, mid, hi, end);
+    }
+
+    private double leaf(int node, int lo, int hi, int year) {
+        while (hi - lo > 1) {
+            if (!Double.isNaN(pending[node])) {
+                return pending[node];
+            }
+            int mid = (lo + hi) >>> 1;
+            if (year < mid) {
+                node = 2 * node;
+                hi = mid;
+            } else {
+                node = 2 * node + 1;
+                lo = mid;
+            }
+        }
+        return Math.scalb(mantissa[node], (int) exponent[node]);   // a single factor is in range
+    }
+
+    private void apply(int node, int length, double factor) {
+        if (length == 1) {
+            store(node, factor, 0);
+            return;
+        }
+        power(factor, length);
+        mantissa[node] = scaledMantissa;
+        exponent[node] = scaledExponent;
+        pending[node] = factor;
+    }
+
+    private void pull(int node) {
+        store(node, mantissa[2 * node] * mantissa[2 * node + 1], exponent[2 * node] + exponent[2 * node + 1]);
+    }
+
+    // Stores value * 2^exp with the value renormalized into [1, 2)
+    private void store(int node, double value, long exp) {
+        int shift = Math.getExponent(value);
+        mantissa[node] = Math.scalb(value, -shift);
+        exponent[node] = exp + shift;
+    }
+
+    // scaled = scaled * m * 2^e
+    private void multiply(double m, long e) {
+        double value = scaledMantissa * m;
+        int shift = Math.getExponent(value);
+        scaledMantissa = Math.scalb(value, -shift);
+        scaledExponent += e + shift;
+    }
+
+    // scaled = factor^length; Math.pow when the result is a normal double,
+    // otherwise square-and-multiply on renormalized values
+    private void power(double factor, int length) {
+        double direct = Math.pow(factor, length);
+        if (direct >= Double.MIN_NORMAL && direct < Double.POSITIVE_INFINITY) {
+            int shift = Math.getExponent(direct);
+            scaledMantissa = Math.scalb(direct, -shift);
+            scaledExponent = shift;
+            return;
+        }
+        int shift = Math.getExponent(factor);
+        double baseMantissa = Math.scalb(factor, -shift);
+        long baseExponent = shift;
+        scaledMantissa = 1.0;
+        scaledExponent = 0;
+        for (int n = length; n > 0; n >>>= 1) {
+            if ((n & 1) != 0) {
+                multiply(baseMantissa, baseExponent);
+            }
+            double square = baseMantissa * baseMantissa;
+            shift = Math.getExponent(square);
+            baseMantissa = Math.scalb(square, -shift);
+            baseExponent = 2 * baseExponent + shift;
+        }
+    }
+
+    // principal * m * 2^e, rounding once unless the result is subnormal
+    private static double scale(double principal, double m, long e) {
+        int exp = (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, e));
+        double value = principal * m;
+        if (Double.isInfinite(value)) {
+            return Math.scalb(principal * 0.5 * m, exp == Integer.MAX_VALUE ? exp : exp + 1);
+        }
+        return Math.scalb(value, exp);
+    }
+
+    // Hands a pending range assignment down to both children
+    private void push(int node, int lo, int hi) {
+        if (!Double.isNaN(pending[node])) {
+            int mid = (lo + hi) >>> 1;
+            apply(2 * node, mid - lo, pending[node]);
+            apply(2 * node + 1, hi - mid, pending[node]);
+            pending[node] = Double.NaN;
+        }
+    }
+
+    private void checkYear(int year) {
+        if (year < 0 || year >= years) {
+            throw new IllegalArgumentException("Year must be between 0 and " + (years - 1) + ".");
+        }
+    }
+
+    private static void validateRate(double rate) {
+        // Same checks, in the same order, as variableInvestor
+        if (rate <= -1.0) {
+            throw new IllegalArgumentException("Rate cannot be less than -100%.");
+        }
+        if (Double.isNaN(rate) || Double.isInfinite(rate)) {
+            throw new IllegalArgumentException("Rates must be finite numbers.");
+        }
+    }
+
+    private static void validatePrincipal(double principal) {
+        if (principal < 0) {
+            throw new IllegalArgumentException("Principal must be non-negative.");
+        }
+    }
+}
@@ -3,8 +3,6 @@
 
 package model;
 
-import java.util.function.DoubleUnaryOperator;
-
 /**
  * Logic layer for retirement savings computations.
  * Contains only mathematical/business logic methods.
@@ -145,12 +143,13 @@ public class RetirementSimulator {
     }
 
     /**
-     * Uses binary search to find the maximum constant annual withdrawal such that
-     * after `years` of:
+     * Finds the maximum constant annual withdrawal such that after `years` of:
      *      B <- B * (1 + rate) - withdrawal
-     * the final balance is approximately zero.
+     * the final balance is approximately zero. The root is found by
+     * {@link WithdrawalSolver}, which falls back to binary search whenever a
+     * Newton step is not safe.
      *
-     * Time complexity: O(years * log(range / tolerance)).
+     * Time complexity: O(years) per solver step; usually 2-3 steps.
      *
      * @param principal Starting retirement balance (>= 0)
      * @param rate      Annual growth rate as decimal (e.g., 0.05 for 5%)
@@ -160,6 +159,36 @@ public class RetirementSimulator {
 
 	//changed to principal to match 
     public static double maximumExpensed(double principal, double rate, int years) {
+        return roundToCents(solveMaximumExpensed(principal, rate, years).getWithdrawal());
+    }
+
+    /**
+     * Same as {@link #maximumExpensed(double, double, int)}, also reporting
+     * how many solver steps it took.
+     *
+     * @param principal Starting retirement balance (>= 0)
+     * @param rate      Annual growth rate as decimal (e.g., 0.05 for 5%)
+     * @param years     Modeled retirement period (e.g., 30)
+     * @return Withdrawal rounded to cents and its solver step count
+     * @throws IllegalArgumentException if inputs are invalid
+     */
+    public static Expensed maximumExpensedWithSteps(double principal, double rate, int years) {
+        WithdrawalSolver.Result solved = solveMaximumExpensed(principal, rate, years);
+        return new Expensed(roundToCents(solved.getWithdrawal()), solved.getIterations());
+    }
+
+    /**
+     * Validates the {@link #maximumExpensed(double, double, int)} inputs and
+     * runs its solver once, for callers that also need the unrounded root.
+     *
+     * @param principal Starting retirement balance (>= 0)
+     * @param rate      Annual growth rate as decimal (e.g., 0.05 for 5%)
+     * @param years     Modeled retirement period (e.g., 30)
+     * @return Unrounded solver result; zero withdrawal and no steps when the
+     *         principal is not positive
+     * @throws IllegalArgumentException if inputs are invalid
+     */
+    static WithdrawalSolver.Result solveMaximumExpensed(double principal, double rate, int years) {
         if (Double.isNaN(principal) || Double.isNaN(rate)) {
             throw new IllegalArgumentException("Inputs must be numeric.");
         }
@@ -167,7 +196,7 @@ public class RetirementSimulator {
             throw new IllegalArgumentException("Inputs must be finite.");
         }
         if (principal <= 0.0) {
-            return 0.0; // nothing to withdraw
+            return new WithdrawalSolver.Result(0.0, 0); // nothing to withdraw
         }
         if (years <= 0) {
             throw new IllegalArgumentException("Years must be positive.");
@@ -177,48 +206,42 @@ public class RetirementSimulator {
             throw new IllegalArgumentException("Rate cannot be less than -100%.");
         }
 
-        final double TOL = 0.01;      // ~$0.01 tolerance on ending balance
-        final int MAX_ITERS = 200;    // bisection steps
-
-        // Helper: ending balance after `years` if we withdraw W each year.
-        DoubleUnaryOperator endBalance = (withdrawal) -> {
-            double b = principal;
-            for (int i = 0; i < years; i++) {
-                b = b * (1.0 + rate) - withdrawal;
-            }
-            return b;
-        };
+        // Safeguarded Newton on the ending balance (shared with maxexpensed.Finance)
+        return WithdrawalSolver.solve(principal, rate, years);
+    }
 
-        double lo = 0.0;
-        double hi = (rate <= 0.0)
-                ? principal
-                : principal * Math.pow(1.0 + rate, years);
+    /**
+     * Rounds a monetary value to two decimal places (cents), as every
+     * maximumExpensed result is.
+     *
+     * @param x Amount in dollars
+     * @return Amount rounded to the nearest cent
+     */
+    static double roundToCents(double x) {
+        return Math.round(x * 100.0) / 100.0;
+    }
 
-        // Ensure hi is large enough to deplete the balance
-        while (endBalance.applyAsDouble(hi) > 0.0 && hi < 1e18) {
-            hi *= 2.0;
-        }
+    /**
+     * A {@link #maximumExpensed(double, double, int)} result with the work it took.
+     */
+    public static final class Expensed {
 
-        // Standard bisection (binary search)
-        for (int it = 0; it < MAX_ITERS; it++) {
-            double mid = 0.5 * (lo + hi);
-            double eb  = endBalance.applyAsDouble(mid);
+        private final double withdrawal;
+        private final int solverSteps;
 
-            if (Math.abs(eb) <= TOL) {
-                return roundToCents(mid);
-            }
-            if (eb > 0.0) {
-                lo = mid;   // withdrawing too little → increase withdrawal
-            } else {
-                hi = mid;   // withdrawing too much → decrease withdrawal
-            }
+        Expensed(double withdrawal, int solverSteps) {
+            this.withdrawal = withdrawal;
+            this.solverSteps = solverSteps;
         }
 
-        return roundToCents(0.5 * (lo + hi));
-    }
+        /** @return Optimal annual withdrawal rounded to cents */
+        public double getWithdrawal() {
+            return withdrawal;
+        }
 
-    // Helper: round a monetary value to two decimal places (cents)
-    private static double roundToCents(double x) {
-        return Math.round(x * 100.0) / 100.0;
+        /** @return Ending-balance evaluations used; zero for an empty principal */
+        public int getSolverSteps() {
+            return solverSteps;
+        }
     }
 }
@@ -0,0 +1,175 @@
+// Project: Retirement Simulator
+// Package: model
+
+package model;
+
+import java.util.stream.IntStream;
+
+/**
+ * Rolling-window historical backtest: runs {@code variableInvestor}-style
+ * growth or {@code finallyRetired}-style depletion from every starting
+ * period of a long return series.
+ *
+ * Calling the simulator once per window costs O(n * w) and a copied array
+ * per window. Here each window is derived from the previous one in O(1):
+ * <pre>
+ *   G(i) = product of (1 + r_k) over the window          (growth factor)
+ *   S(i) = sum over j of product of (1 + r_k), k > j     (withdrawal factor)
+ *   end(i) = B * G(i) - W * S(i)
+ * </pre>
+ * Sliding the window one step divides out the oldest factor and multiplies
+ * in the newest. To keep round-off from piling up across millions of
+ * steps, the window is recomputed exactly (re-anchored) every {@code w}
+ * steps, so the total work stays O(n). Each anchored run is independent,
+ * so the runs are spread across cores.
+ */
+public class RollingBacktest {
+
+    /**
+     * Ending balance of {@code principal} grown over every window of the series.
+     *
+     * @param principal Initial investment (must be >= 0)
+     * @param returns   Periodic returns as decimals (each > -100%)
+     * @param window    Periods per window (1..returns.length)
+     * @return Ending balance for each start 0..returns.length - window
+     * @throws IllegalArgumentException if inputs are invalid
+     */
+    public static double[] growth(double principal, double[] returns, int window) {
+        if (principal < 0) {
+            throw new IllegalArgumentException("Principal must be non-negative.");
+        }
+        validate(returns, window);
+
+        double[] endings = new double[returns.length - window + 1];
+        // Log space: a sum of log-growth slides without overflow or division
+        forEachAnchor(endings.length, window, (from, to) -> {
+            double logGrowth = 0.0;
+            for (int k = from; k < from + window; k++) {
+                logGrowth += Math.log1p(returns[k]);
+            }
+            endings[from] = principal * Math.exp(logGrowth);
+            for (int i = from + 1; i < to; i++) {
+                logGrowth += Math.log1p(returns[i + window - 1]) - Math.log1p(returns[i - 1]);
+                endings[i] = principal * Math.exp(logGrowth);
+            }
+        });
+        return endings;
+    }
+
+    /**
+     * Withdraws a fixed amount at the end of every period of every window,
+     * the way {@code finallyRetired} does, and records the balance left when
+     * the window ends. A window succeeds if that balance is still positive.
+     * Once the balance is at or below zero it can never recover, so a
+     * positive ending means the money lasted the whole window.
+     *
+     * @param startingBalance Initial amount (>= 0)
+     * @param withdrawal      Amount withdrawn each period (> 0)
+     * @param returns         Periodic returns as decimals (each > -100%)
+     * @param window          Periods per window (1..returns.length)
+     * @return Ending balances (negative = shortfall) and success rate
+     * @throws IllegalArgumentException if inputs are invalid
+     */
+    public static BacktestResult depletion(double startingBalance, double withdrawal,
+                                           double[] returns, int window) {
+        if (startingBalance < 0) {
+            throw new IllegalArgumentException("Balance must not be a negative ");
+        }
+        if (withdrawal <= 0) {
+            throw new IllegalArgumentException("Withdrawal amount must be greater than zero(0)");
+        }
+        validate(returns, window);
+
+        double[] endings = new double[returns.length - window + 1];
+        forEachAnchor(endings.length, window, (from, to) -> {
+            // Anchor: G and S of window `from`, straight from the recurrence
+            double growth = 1.0;
+            double withdrawn = 0.0;
+            for (int k = from; k < from + window; k++) {
+                growth *= 1.0 + returns[k];
+                withdrawn = withdrawn * (1.0 + returns[k]) + 1.0;
+            }
+            endings[from] = startingBalance * growth - withdrawal * withdrawn;
+
+            for (int i = from + 1; i < to; i++) {
+                double leaving = 1.0 + returns[i - 1];
+                double entering = 1.0 + returns[i + window - 1];
+                // Drop the first period's withdrawal term, then age everything one period
+                withdrawn = entering * (withdrawn - growth / leaving) + 1.0;
+                growth = growth / leaving * entering;
+                endings[i] = startingBalance * growth - withdrawal * withdrawn;
+            }
+        });
+        return new BacktestResult(endings);
+    }
+
+    /**
+     * Per-window outcome of a depletion backtest.
+     */
+    public static final class BacktestResult {
+
+        private final double[] endingBalances;
+        private final int successes;
+
+        BacktestResult(double[] endingBalances) {
+            this.endingBalances = endingBalances;
+            int count = 0;
+            for (double balance : endingBalances) {
+                if (balance > 0.0) {
+                    count++;
+                }
+            }
+            this.successes = count;
+        }
+
+        /** @return Balance left at the end of each window, indexed by starting period */
+        public double[] getEndingBalances() {
+            return endingBalances;
+        }
+
+        /** @return Number of windows */
+        public int getWindows() {
+            return endingBalances.length;
+        }
+
+        /** @return Number of windows where the money lasted */
+        public int getSuccesses() {
+            return successes;
+        }
+
+        /** @return Fraction of windows where the money lasted */
+        public double getSuccessRate() {
+            return (double) successes / endingBalances.length;
+        }
+    }
+
+    private interface AnchoredRun {
+        void run(int from, int to);
+    }
+
+    // Splits window starts [0, windows) into runs of `window` starts, each anchored once
+    private static void forEachAnchor(int windows, int window, AnchoredRun run) {
+        int runs = (windows + window - 1) / window;
+        IntStream.range(0, runs).parallel().forEach(r -> {
+            int from = r * window;
+            run.run(from, Math.min(from + window, windows));
+        });
+    }
+
+    private static void validate(double[] returns, int window) {
+        if (returns == null || returns.length == 0) {
+            throw new IllegalArgumentException("Rates list cannot be null or empty.");
+        }
+        if (window <= 0 || window > returns.length) {
+            throw new IllegalArgumentException("Window must be between 1 and the number of periods.");
+        }
+        for (double rate : returns) {
+            if (Double.isNaN(rate) || Double.isInfinite(rate)) {
+                throw new IllegalArgumentException("Rates must be finite numbers.");
+            }
+            if (rate <= -1.0) {
+                throw new IllegalArgumentException("Rate cannot be less than -100%.");
+            }
+        }
+    }
+}
@@ -0,0 +1,334 @@
+// Project: Retirement Simulator
+// Package: model
+
+package model;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.IntStream;
+
+/**
+ * Probabilistic counterpart of {@link RetirementSimulator#maximumExpensed}:
+ * the largest fixed annual withdrawal that still lasts the whole horizon in
+ * at least a target share of random return scenarios (e.g. 95%).
+ *
+ * The return scenarios are generated once, up front, and every candidate
+ * withdrawal is judged on the same scenarios (common random numbers). On a
+ * fixed scenario a larger withdrawal can only fail sooner, so the estimated
+ * success rate is monotone in the withdrawal and a bisection on it is exact
+ * for the sample; noise between candidates cannot reorder them. Storing
+ * growth factors instead of rates also means {@code Math.exp} runs once per
+ * path-year in total, not once per candidate.
+ *
+ * The search runs in two phases. The first narrows the answer down to half
+ * a cent, evaluating each candidate in rounds of {@link #ROUND_PATHS}
+ * scenarios split across the fork/join pool. After every round a 99% Wilson
+ * score interval of the success rate is checked against the target; once it
+ * lies entirely on one side the candidate is decided and the remaining
+ * scenarios are skipped, so only candidates close to the target use the
+ * full sample. Such a decision can be wrong about the sample, so the second
+ * phase judges whole-cent withdrawals around that estimate on every
+ * scenario, widening the bracket until it holds, then bisects it. The
+ * result is therefore the same as a full-sample search: the largest
+ * whole-cent withdrawal whose sample success rate reaches the target. Early
+ * stopping only saves work; a wrong early decision costs a few extra
+ * full-sample candidates. Round sizes do not depend on the number of
+ * cores, so results are reproducible across machines.
+ *
+ * Memory: paths * years doubles (e.g. 24 MB for 100,000 paths of 30 years).
+ */
+public final class SafeWithdrawalOptimizer {
+
+    /** Normal quantile for the two-sided 99% interval used to stop early. */
+    public static final double Z_99 = 2.5758293035489004;
+
+    /** Scenarios evaluated per round before the interval is checked. */
+    public static final int ROUND_PATHS = 8 * 2048;
+
+    private static final int CHUNK_PATHS = 2048;
+
+    private final int years;
+    private final int paths;
+    private final double[] growth;     // growth[p * years + y] = 1 + return of path p in year y
+
+    /**
+     * Generates the return scenarios. Annual returns are log-normal with the
+     * given arithmetic mean and standard deviation, as in
+     * {@link MonteCarloSimulator}; equal seeds give equal scenarios.
+     *
+     * @param meanRate   Expected annual return as decimal (e.g., 0.05)
+     * @param volatility Standard deviation of annual returns as decimal (>= 0)
+     * @param years      Retirement horizon in years (> 0)
+     * @param paths      Number of scenarios (> 0)
+     * @param seed       Seed for the random streams
+     * @throws IllegalArgumentException if inputs are invalid or the scenarios do not fit in an array
+     */
+    public SafeWithdrawalOptimizer(double meanRate, double volatility, int years, int paths, long seed) {
+        MonteCarloSimulator.validate(0.0, meanRate, volatility, years, paths);
+        if ((long) years * paths > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Too many path-years: " + (long) years * paths);
+        }
+        this.years = years;
+        this.paths = paths;
+        this.growth = new double[years * paths];
+        ForkJoinPool.commonPool().invoke(new GenerateTask(new SplittableRandom(seed),
+                0, MonteCarloSimulator.blockCount(paths),
+                MonteCarloSimulator.logMean(meanRate, volatility),
+                MonteCarloSimulator.logSigma(meanRate, volatility)));
+    }
+
+    /**
+     * Outcome of {@link #optimize}.
+     */
+    public static final class Result {
+
+        private final double withdrawal;
+        private final double successRate;
+        private final int candidates;
+        private final long pathEvaluations;
+
+        Result(double withdrawal, double successRate, int candidates, long pathEvaluations) {
+            this.withdrawal = withdrawal;
+            this.successRate = successRate;
+            this.candidates = candidates;
+            this.pathEvaluations = pathEvaluations;
+        }
+
+        /** @return Largest whole-cent annual withdrawal that meets the target on the sample */
+        public double getWithdrawal() {
+            return withdrawal;
+        }
+
+        /** @return Share of all scenarios that last the horizon at that withdrawal */
+        public double getSuccessRate() {
+            return successRate;
+        }
+
+        /** @return Number of withdrawal levels tried */
+        public int getCandidates() {
+            return candidates;
+        }
+
+        /** @return Scenario simulations run in total (candidates * paths without early stopping) */
+        public long getPathEvaluations() {
+            return pathEvaluations;
+        }
+    }
+
+    /** @return Number of scenarios */
+    public int getPaths() {
+        return paths;
+    }
+
+    /** @return Horizon in years */
+    public int getYears() {
+        return years;
+    }
+
+    /**
+     * Share of scenarios in which the balance stays above zero for every
+     * year of the horizon, using the same recurrence as
+     * {@link RetirementSimulator#finallyRetired}. Uses all scenarios.
+     *
+     * @param startingBalance  Initial amount in the retirement account (>= 0)
+     * @param annualWithdrawal Fixed withdrawal amount each year (>= 0)
+     * @return Success rate between 0 and 1
+     */
+    public double successRate(double startingBalance, double annualWithdrawal) {
+        return (double) countSuccesses(startingBalance, annualWithdrawal, 0, paths) / paths;
+    }
+
+    /**
+     * Finds the largest whole-cent withdrawal whose success rate over all
+     * scenarios ({@link #successRate}) is at least {@code target}.
+     *
+     * @param startingBalance Initial amount in the retirement account (> 0)
+     * @param target          Required success rate, e.g. 0.95 (0 < target <= 1)
+     * @return Safe withdrawal and how much work finding it took; the
+     *         withdrawal is 0 if even withdrawing nothing misses the target
+     * @throws IllegalArgumentException if inputs are invalid
+     */
+    public Result optimize(double startingBalance, double target) {
+        if (!(startingBalance > 0) || Double.isInfinite(startingBalance)) {
+            throw new IllegalArgumentException("Balance must be positive.");
+        }
+        if (!(target > 0.0 && target <= 1.0)) {
+            throw new IllegalArgumentException("Target success rate must be between 0 and 1.");
+        }
+        long[] evaluations = new long[1];
+        int candidates = 0;
+
+        // Withdrawing nothing always succeeds; double until a level fails
+        double lo = 0.0;
+        double hi = startingBalance / years;
+        while (true) {
+            candidates++;
+            if (!succeeds(startingBalance, hi, target, evaluations)) {
+                break;
+            }
+            lo = hi;
+            hi *= 2.0;
+        }
+
+        // Bisection to half a cent; success is monotone on common scenarios
+        while (hi - lo > 0.005 && hi - lo > Math.ulp(hi)) {
+            double mid = 0.5 * (lo + hi);
+            candidates++;
+            if (succeeds(startingBalance, mid, target, evaluations)) {
+                lo = mid;
+            } else {
+                hi = mid;
+            }
+        }
+
+        // Confirm on every scenario: bracket the cent boundary around the estimate...
+        long good;      // cents known to meet the target on the full sample
+        long bad;       // cents known to miss it
+        long step = 1;
+        long cents = (long) Math.floor(lo * 100.0);
+        candidates++;
+        if (meetsTarget(startingBalance, cents, target, evaluations)) {
+            good = cents;
+            while (true) {
+                candidates++;
+                if (!meetsTarget(startingBalance, good + step, target, evaluations)) {
+                    bad = good + step;
+                    break;
+                }
+                good += step;
+                step *= 2;
+            }
+        } else {
+            bad = cents;
+            while (true) {
+                if (bad == 0) {
+                    good = 0;       // not even withdrawing nothing meets the target
+                    break;
+                }
+                long next = Math.max(0, bad - step);
+                candidates++;
+                if (meetsTarget(startingBalance, next, target, evaluations)) {
+                    good = next;
+                    break;
+                }
+                bad = next;
+                step *= 2;
+            }
+        }
+
+        // ...then bisect it to a single cent
+        while (bad - good > 1) {
+            long mid = good + (bad - good) / 2;
+            candidates++;
+            if (meetsTarget(startingBalance, mid, target, evaluations)) {
+                good = mid;
+            } else {
+                bad = mid;
+            }
+        }
+
+        double withdrawal = good / 100.0;
+        return new Result(withdrawal, successRate(startingBalance, withdrawal), candidates, evaluations[0]);
+    }
+
+    // Decides success >= target on every scenario, for a withdrawal in whole cents
+    private boolean meetsTarget(double balance, long cents, double target, long[] evaluations) {
+        evaluations[0] += paths;
+        return (double) countSuccesses(balance, cents / 100.0, 0, paths) / paths >= target;
+    }
+
+    // Decides success >= target, stopping as soon as the Wilson interval is on one side
+    private boolean succeeds(double balance, double withdrawal, double target, long[] evaluations) {
+        long successes = 0;
+        int done = 0;
+        while (done < paths) {
+            int end = (int) Math.min((long) done + ROUND_PATHS, paths);
+            successes += countSuccesses(balance, withdrawal, done, end);
+            evaluations[0] += end - done;
+            done = end;
+            if (done == paths) {
+                break;
+            }
+            double n = done;
+            double p = successes / n;
+            double centre = p + Z_99 * Z_99 / (2 * n);
+            double spread = Z_99 * Math.sqrt(p * (1 - p) / n + Z_99 * Z_99 / (4 * n * n));
+            double scale = 1 + Z_99 * Z_99 / n;
+            if ((centre - spread) / scale >= target) {
+                return true;
+            }
+            if ((centre + spread) / scale < target) {
+                return false;
+            }
+        }
+        return (double) successes / paths >= target;
+    }
+
+    // Scenarios in [from, to) that last the horizon, counted in parallel chunks
+    private long countSuccesses(double balance, double withdrawal, int from, int to) {
+        int chunks = (to - from + CHUNK_PATHS - 1) / CHUNK_PATHS;
+        return IntStream.range(0, chunks).parallel().mapToLong(c -> {
+            int start = from + c * CHUNK_PATHS;
+            int end = Math.min(start + CHUNK_PATHS, to);
+            long ok = 0;
+            for (int p = start; p < end; p++) {
+                if (lasts(balance, withdrawal, p)) {
+                    ok++;
+                }
+            }
+            return ok;
+        }).sum();
+    }
+
+    private boolean lasts(double balance, double withdrawal, int path) {
+        int offset = path * years;
+        double b = balance;
+        for (int y = 0; y < years; y++) {
+            b = b * growth[offset + y] - withdrawal;
+            if (b <= 0.0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Fills the growth factors of the block range [fromBlock, toBlock) with
+     * the same midpoint split as MonteCarloSimulator's PathTask.
+     */
+    private final class GenerateTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final SplittableRandom random;
+        private final int fromBlock;
+        private final int toBlock;
+        private final double mu;
+        private final double sigma;
+
+        GenerateTask(SplittableRandom random, int fromBlock, int toBlock, double mu, double sigma) {
+            this.random = random;
+            this.fromBlock = fromBlock;
+            this.toBlock = toBlock;
+            this.mu = mu;
+            this.sigma = sigma;
+        }
+
+        @Override
+        protected void compute() {
+            if (toBlock - fromBlock == 1) {
+                int start = fromBlock * MonteCarloSimulator.BLOCK_PATHS;
+                int end = Math.min(start + MonteCarloSimulator.BLOCK_PATHS, paths);
+                for (int i = start * years; i < end * years; i++) {
+                    growth[i] = Math.exp(mu + sigma * random.nextGaussian());
+                }
+                return;
+            }
+            int mid = (fromBlock + toBlock) >>> 1;
+            GenerateTask left = new GenerateTask(random.split(), fromBlock, mid, mu, sigma);
+            GenerateTask right = new GenerateTask(random.split(), mid, toBlock, mu, sigma);
+            invokeAll(left, right);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+// Project: Retirement Simulator
+// Package: model
+
+package model;
+
+/**
+ * Sensitivity of the {@link RetirementSimulator} functions to their inputs.
+ *
+ * Instead of re-running a function with bumped inputs (2-3 full runs per
+ * parameter, and a step size to pick), each loop carries the partial
+ * derivatives of the balance alongside the balance itself, the same way
+ * {@link WithdrawalSolver} carries dB/dW. For B <- B * (1 + r):
+ *      dB/dP <- dB/dP * (1 + r)
+ *      dB/dr <- dB/dr * (1 + r) + B
+ * so every result and its partials come out of one pass. The horizon is a
+ * whole number of years; its derivative is that of the continuous extension
+ * (1 + r)^n, i.e. the marginal value of a fraction of another year.
+ *
+ * maximumExpensed is a root W of E(W, P, r, n) = 0, where E is the ending
+ * balance. By the implicit function theorem
+ *      dW/dx = -(dE/dx) / (dE/dW)
+ * so after one solve a single derivative pass at the root gives all the
+ * partials, with no further root finding.
+ */
+public class SensitivityAnalyzer {
+
+    /**
+     * A result together with its partial derivatives.
+     */
+    public static final class Sensitivity {
+
+        private final double value;
+        private final double dPrincipal;
+        private final double dRate;
+        private final double dYears;
+        private final double[] dRates;
+
+        Sensitivity(double value, double dPrincipal, double dRate, double dYears, double[] dRates) {
+            this.value = value;
+            this.dPrincipal = dPrincipal;
+            this.dRate = dRate;
+            this.dYears = dYears;
+            this.dRates = dRates;
+        }
+
+        /** @return Same value the {@link RetirementSimulator} function returns */
+        public double getValue() {
+            return value;
+        }
+
+        /** @return d(value)/d(principal) */
+        public double getDPrincipal() {
+            return dPrincipal;
+        }
+
+        /**
+         * @return d(value)/d(rate); for variableInvestor, the effect of shifting
+         *         every year's rate by the same amount
+         */
+        public double getDRate() {
+            return dRate;
+        }
+
+        /** @return d(value)/d(years) of the continuous extension */
+        public double getDYears() {
+            return dYears;
+        }
+
+        /**
+         * @return d(value)/d(rate of year i) for variableInvestor, or null for
+         *         the single-rate functions
+         */
+        public double[] getDRates() {
+            return dRates == null ? null : dRates.clone();
+        }
+    }
+
+    /**
+     * {@link RetirementSimulator#fixedInvestor} with its partial derivatives.
+     *
+     * Time complexity: O(n), a single pass.
+     *
+     * @param principal Initial investment (must be >= 0)
+     * @param rate      Annual interest rate as decimal (e.g., 0.075 for 7.5%)
+     * @param years     Number of years (must be >= 0)
+     * @return Future value and its partials
+     * @throws IllegalArgumentException if inputs are invalid
+     */
+    public static Sensitivity fixedInvestor(double principal, double rate, int years) {
+        if (principal < 0) {
+            throw new IllegalArgumentException("Principal must be non-negative.");
+        }
+        if (years < 0) {
+            throw new IllegalArgumentException("Years must be non-negative.");
+        }
+        if (rate <= -1.0) {
+            throw new IllegalArgumentException("Rate cannot be less than -100%.");
+        }
+
+        double futureValue = principal;
+        double dPrincipal = 1.0;
+        double dRate = 0.0;
+        for (int year = 0; year < years; year++) {
+            dRate = dRate * (1 + rate) + futureValue;    // uses last year's balance
+            futureValue = futureValue * (1 + rate);
+            dPrincipal = dPrincipal * (1 + rate);
+        }
+        double dYears = futureValue * Math.log1p(rate);
+        return new Sensitivity(futureValue, dPrincipal, dRate, dYears, null);
+    }
+
+    /**
+     * {@link RetirementSimulator#variableInvestor} with its partial derivatives,
+     * including one per year's rate. The horizon derivative extends the
+     * schedule at its final rate.
+     *
+     * Time complexity: O(n), a single pass.
+     *
+     * @param principal Initial investment (must be >= 0)
+     * @param ratesList Array of annual interest rates as decimals
+     * @return Future value and its partials
+     * @throws IllegalArgumentException if inputs are invalid
+     */
+    public static Sensitivity variableInvestor(double principal, double[] ratesList) {
+        if (principal < 0) {
+            throw new IllegalArgumentException("Principal must be non-negative.");
+        }
+        if (ratesList == null || ratesList.length == 0) {
+            throw new IllegalArgumentException("Rates list cannot be null or empty.");
+        }
+
+        double futureValue = principal;
+        double dPrincipal = 1.0;
+        double dShift = 0.0;
+        for (double rate : ratesList) {
+            if (rate <= -1.0) {
+                throw new IllegalArgumentException("Rate cannot be less than -100%.");
+            }
+            if (Double.isNaN(rate) || Double.isInfinite(rate)) {
+                throw new IllegalArgumentException("Rates must be finite numbers.");
+            }
+            dShift = dShift * (1 + rate) + futureValue;
+            futureValue *= (1 + rate);
+            dPrincipal *= (1 + rate);
+        }
+
+        // A product is linear in each factor: d(FV)/d(r_i) = FV / (1 + r_i)
+        double[] dRates = new double[ratesList.length];
+        for (int i = 0; i < ratesList.length; i++) {
+            dRates[i] = futureValue / (1 + ratesList[i]);
+        }
+        double dYears = futureValue * Math.log1p(ratesList[ratesList.length - 1]);
+        return new Sensitivity(futureValue, dPrincipal, dShift, dYears, dRates);
+    }
+
+    /**
+     * {@link RetirementSimulator#maximumExpensed} with its partial derivatives.
+     * The value is rounded to cents like the original; the partials are those
+     * of the exact (unrounded) root. A non-positive principal returns zero
+     * with zero partials, matching the original's flat "nothing to withdraw".
+     *
+     * Time complexity: O(years) per solver step plus one derivative pass.
+     *
+     * @param principal Starting retirement balance (>= 0)
+     * @param rate      Annual growth rate as decimal (e.g., 0.05 for 5%)
+     * @param years     Modeled retirement period (e.g., 30)
+     * @return Optimal annual withdrawal and its partials
+     * @throws IllegalArgumentException if inputs are invalid
+     */
+    public static Sensitivity maximumExpensed(double principal, double rate, int years) {
+        // Validated and solved once; the value is this root rounded to cents
+        double withdrawal = RetirementSimulator.solveMaximumExpensed(principal, rate, years).getWithdrawal();
+        double rounded = RetirementSimulator.roundToCents(withdrawal);
+        if (principal <= 0.0) {
+            return new Sensitivity(rounded, 0.0, 0.0, 0.0, null);
+        }
+
+        // Partials of the ending balance E at the root, in one pass
+        double balance = principal;
+        double dPrincipal = 1.0;
+        double dRate = 0.0;
+        double dWithdrawal = 0.0;
+        for (int year = 0; year < years; year++) {
+            dRate = dRate * (1.0 + rate) + balance;
+            balance = balance * (1.0 + rate) - withdrawal;
+            dPrincipal = dPrincipal * (1.0 + rate);
+            dWithdrawal = dWithdrawal * (1.0 + rate) - 1.0;
+        }
+        // E(n) = (P - W/r)(1 + r)^n + W/r, so dE/dn = ln(1 + r) * (E - W/r); -W when r = 0
+        double dYears = (rate == 0.0)
+                ? -withdrawal
+                : Math.log1p(rate) * (balance - withdrawal / rate);
+
+        // Implicit function theorem: dW/dx = -(dE/dx) / (dE/dW)
+        return new Sensitivity(rounded,
+                -dPrincipal / dWithdrawal,
+                -dRate / dWithdrawal,
+                -dYears / dWithdrawal,
+                null);
+    }
+}
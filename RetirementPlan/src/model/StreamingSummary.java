@@ -0,0 +1,439 @@
+// Project: Retirement Simulator
+// Package: model
+
+package model;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Constant-memory summary of a stream of simulation outcomes: count, mean,
+ * standard deviation, min/max, approximate percentiles and, for depletion
+ * runs, the exact probability of running out within a given number of years.
+ *
+ * Moments use Welford's update and Chan's formula to combine partial
+ * results. Percentiles come from a merging t-digest: outcomes are buffered,
+ * sorted and folded into at most ~{@code compression} weighted centroids,
+ * kept small near the tails so P5/P95 stay sharp. Memory is fixed by the
+ * compression, not by the number of outcomes.
+ *
+ * A summary is not thread-safe. Parallel runs give every task its own
+ * summary and {@link #merge} them at the end; merging in a fixed order
+ * (e.g. along {@link MonteCarloSimulator}'s task tree) gives the same result
+ * on any number of threads.
+ *
+ * {@link #writeTo} and {@link #readFrom} copy the complete state, buffered
+ * outcomes included, so a summary shipped from another process merges
+ * exactly as the original object would have.
+ *
+ * Accuracy: with the default compression the percentile returned for
+ * P1..P99 lies within about 0.5% in rank of the exact sorted percentile
+ * (much closer at the tails), and min/max are exact.
+ */
+public final class StreamingSummary {
+
+    /** Compression used by {@link #StreamingSummary()}: about this many centroids. */
+    public static final double DEFAULT_COMPRESSION = 200.0;
+
+    private final double compression;
+
+    // Centroids, sorted by mean
+    private double[] means;
+    private double[] weights;
+    private int centroids;
+
+    // Outcomes not yet folded into the centroids (all of weight 1)
+    private final double[] buffer;
+    private int buffered;
+
+    // Scratch space for compress(), reused so adding never allocates once warmed up
+    private double[] mergedMeans = new double[0];
+    private double[] mergedWeights = new double[0];
+
+    // Welford moments
+    private long count;
+    private double mean;
+    private double m2;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    // depleted[y] = runs that ran out in year y; trials = runs recorded by addDepletion
+    private long[] depleted = new long[0];
+    private long trials;
+
+    public StreamingSummary() {
+        this(DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * @param compression Accuracy/size trade-off (>= 20); about this many centroids are kept
+     * @throws IllegalArgumentException if compression is too small
+     */
+    public StreamingSummary(double compression) {
+        if (!(compression >= 20.0) || Double.isInfinite(compression)) {
+            throw new IllegalArgumentException("Compression must be at least 20.");
+        }
+        this.compression = compression;
+        int capacity = (int) Math.ceil(compression) * 2 + 10;
+        this.means = new double[capacity];
+        this.weights = new double[capacity];
+        this.buffer = new double[capacity * 4];
+    }
+
+    /**
+     * Adds one outcome.
+     *
+     * @param value Outcome (NaN is rejected)
+     * @throws IllegalArgumentException if value is NaN
+     */
+    public void add(double value) {
+        if (Double.isNaN(value)) {
+            throw new IllegalArgumentException("Outcome must be a number.");
+        }
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+        if (value < min) {
+            min = value;
+        }
+        if (value > max) {
+            max = value;
+        }
+        buffer[buffered++] = value;
+        if (buffered == buffer.length) {
+            flush();
+        }
+    }
+
+    /**
+     * Records when one run ran out of money, for {@link #probabilityDepletedWithin}.
+     *
+     * @param year Years until depletion (>= 1), or {@link AnalyticSimulator#NEVER_DEPLETES}
+     *             (or any year past the horizon) if it did not run out
+     * @throws IllegalArgumentException if year is below 1
+     */
+    public void addDepletion(int year) {
+        if (year < 1) {
+            throw new IllegalArgumentException("Depletion year must be at least 1.");
+        }
+        trials++;
+        if (year == AnalyticSimulator.NEVER_DEPLETES) {
+            return;
+        }
+        if (year >= depleted.length) {
+            depleted = Arrays.copyOf(depleted, Math.max(year + 1, depleted.length * 2));
+        }
+        depleted[year]++;
+    }
+
+    /**
+     * Folds another summary into this one. {@code other} is left unchanged
+     * apart from flushing its buffer.
+     *
+     * @param other Summary of a disjoint set of outcomes (same compression recommended)
+     * @return This summary
+     */
+    public StreamingSummary merge(StreamingSummary other) {
+        if (other.count > 0) {
+            other.flush();
+            flush();
+
+            // Chan et al.: combine the two partial means and squared deviations
+            long n = count + other.count;
+            double delta = other.mean - mean;
+            mean += delta * other.count / n;
+            m2 += other.m2 + delta * delta * ((double) count * other.count / n);
+            count = n;
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+
+            compress(other.means, other.weights, other.centroids);
+        }
+        if (other.trials > 0) {
+            if (other.depleted.length > depleted.length) {
+                depleted = Arrays.copyOf(depleted, other.depleted.length);
+            }
+            for (int y = 0; y < other.depleted.length; y++) {
+                depleted[y] += other.depleted[y];
+            }
+            trials += other.trials;
+        }
+        return this;
+    }
+
+    /** @return Number of outcomes added */
+    public long getCount() {
+        return count;
+    }
+
+    /** @return Mean outcome (0 if empty) */
+    public double getMean() {
+        return mean;
+    }
+
+    /** @return Sample variance of the outcomes (0 for fewer than two) */
+    public double getVariance() {
+        return count > 1 ? m2 / (count - 1) : 0.0;
+    }
+
+    /** @return Sample standard deviation of the outcomes */
+    public double getStdDev() {
+        return Math.sqrt(getVariance());
+    }
+
+    /** @return Smallest outcome (exact) */
+    public double getMin() {
+        return min;
+    }
+
+    /** @return Largest outcome (exact) */
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * Approximate percentile of the outcomes. Estimates interpolate between
+     * centroids, so for whole-number outcomes (e.g. depletion years) round
+     * the result.
+     *
+     * @param percent Percentile between 0 and 100 (e.g., 5 for P5)
+     * @return Estimated outcome at that percentile
+     * @throws IllegalArgumentException if percent is out of range or the summary is empty
+     */
+    public double percentile(double percent) {
+        if (!(percent >= 0.0 && percent <= 100.0)) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100.");
+        }
+        if (count == 0) {
+            throw new IllegalArgumentException("No outcomes have been added.");
+        }
+        flush();
+        if (percent == 0.0) {
+            return min;
+        }
+        if (percent == 100.0) {
+            return max;
+        }
+
+        // Each centroid's mass is centred on its mean; interpolate between
+        // neighbouring centres, and towards the exact min/max at the ends.
+        // Centroids known to hold a single value (one outcome, or only the
+        // min or max; see compress) cover their whole rank range instead.
+        double target = percent / 100.0 * count;
+        double cumulative = 0.0;
+        double prevCentre = 0.0;
+        double prevMean = min;
+        for (int i = 0; i < centroids; i++) {
+            boolean exact = weights[i] == 1.0 || means[i] == min || means[i] == max;
+            double start = exact ? cumulative : cumulative + weights[i] / 2.0;
+            if (target < start) {
+                double t = (target - prevCentre) / (start - prevCentre);
+                return prevMean + t * (means[i] - prevMean);
+            }
+            cumulative += weights[i];
+            if (exact && target < cumulative) {
+                return means[i];
+            }
+            prevCentre = exact ? cumulative : start;
+            prevMean = means[i];
+        }
+        double t = (target - prevCentre) / (count - prevCentre);
+        return prevMean + t * (max - prevMean);
+    }
+
+    /**
+     * Exact share of the runs recorded with {@link #addDepletion} that ran
+     * out of money within the first {@code years} years.
+     *
+     * @param years Horizon in years
+     * @return Probability between 0 and 1 (0 if no runs were recorded)
+     */
+    public double probabilityDepletedWithin(int years) {
+        if (trials == 0) {
+            return 0.0;
+        }
+        long hits = 0;
+        for (int y = 1; y <= years && y < depleted.length; y++) {
+            hits += depleted[y];
+        }
+        return (double) hits / trials;
+    }
+
+    /** @return Number of runs recorded with {@link #addDepletion} */
+    public long getDepletionTrials() {
+        return trials;
+    }
+
+    /**
+     * Writes the complete state, so {@link #readFrom} rebuilds a summary
+     * that behaves bit for bit like this one.
+     *
+     * @param out Destination
+     * @throws IOException if writing fails
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeDouble(compression);
+        out.writeLong(count);
+        out.writeDouble(mean);
+        out.writeDouble(m2);
+        out.writeDouble(min);
+        out.writeDouble(max);
+        out.writeInt(centroids);
+        for (int i = 0; i < centroids; i++) {
+            out.writeDouble(means[i]);
+            out.writeDouble(weights[i]);
+        }
+        out.writeInt(buffered);
+        for (int i = 0; i < buffered; i++) {
+            out.writeDouble(buffer[i]);
+        }
+        out.writeLong(trials);
+        out.writeInt(depleted.length);
+        for (long d : depleted) {
+            out.writeLong(d);
+        }
+    }
+
+    /**
+     * Reads a summary written by {@link #writeTo}.
+     *
+     * @param in Source
+     * @return The summary
+     * @throws IOException if reading fails or the data is not a summary
+     */
+    public static StreamingSummary readFrom(DataInput in) throws IOException {
+        StreamingSummary summary;
+        try {
+            summary = new StreamingSummary(in.readDouble());
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Corrupt summary: " + e.getMessage(), e);
+        }
+        summary.count = in.readLong();
+        summary.mean = in.readDouble();
+        summary.m2 = in.readDouble();
+        summary.min = in.readDouble();
+        summary.max = in.readDouble();
+        int centroids = in.readInt();
+        if (centroids < 0 || centroids > Math.max(summary.count, 0)) {
+            throw new IOException("Corrupt summary: " + centroids + " centroids.");
+        }
+        if (centroids > summary.means.length) {
+            summary.means = new double[centroids];
+            summary.weights = new double[centroids];
+        }
+        for (int i = 0; i < centroids; i++) {
+            summary.means[i] = in.readDouble();
+            summary.weights[i] = in.readDouble();
+        }
+        summary.centroids = centroids;
+        int buffered = in.readInt();
+        if (buffered < 0 || buffered >= summary.buffer.length) {
+            throw new IOException("Corrupt summary: " + buffered + " buffered outcomes.");
+        }
+        for (int i = 0; i < buffered; i++) {
+            summary.buffer[i] = in.readDouble();
+        }
+        summary.buffered = buffered;
+        summary.trials = in.readLong();
+        int years = in.readInt();
+        if (years < 0) {
+            throw new IOException("Corrupt summary: " + years + " depletion years.");
+        }
+        summary.depleted = new long[years];
+        for (int y = 0; y < years; y++) {
+            summary.depleted[y] = in.readLong();
+        }
+        return summary;
+    }
+
+    // Sorts the buffered outcomes and folds them into the centroids
+    private void flush() {
+        if (buffered == 0) {
+            return;
+        }
+        Arrays.sort(buffer, 0, buffered);
+        int n = buffered;
+        buffered = 0;
+        compress(buffer, null, n);
+    }
+
+    // Merges a sorted list of centroids into ours, then greedily combines
+    // neighbours while each centroid stays within one unit of the k1 scale
+    //      k(q) = compression / (2 pi) * asin(2q - 1)
+    // which allows large centroids in the middle and tiny ones at the tails.
+    // Outcomes equal to the min or max are never combined with other values,
+    // so a point mass there (e.g. every depleted path ending at 0) keeps its
+    // exact rank range. A null otherWeights means every incoming point has weight 1.
+    private void compress(double[] otherMeans, double[] otherWeights, int otherCount) {
+        int total = centroids + otherCount;
+        if (mergedMeans.length < total) {
+            mergedMeans = new double[total];
+            mergedWeights = new double[total];
+        }
+        int i = 0;
+        int j = 0;
+        for (int k = 0; k < total; k++) {
+            if (j >= otherCount || (i < centroids && means[i] <= otherMeans[j])) {
+                mergedMeans[k] = means[i];
+                mergedWeights[k] = weights[i++];
+            } else {
+                mergedMeans[k] = otherMeans[j];
+                mergedWeights[k] = (otherWeights == null) ? 1.0 : otherWeights[j];
+                j++;
+            }
+        }
+
+        double totalWeight = 0.0;
+        for (int k = 0; k < total; k++) {
+            totalWeight += mergedWeights[k];
+        }
+
+        int out = 0;
+        double soFar = 0.0;
+        double limit = quantileLimit(0.0, totalWeight);
+        double curMean = mergedMeans[0];
+        double curWeight = mergedWeights[0];
+        for (int k = 1; k < total; k++) {
+            double w = mergedWeights[k];
+            if (soFar + curWeight + w <= limit && !separates(curMean, mergedMeans[k])) {
+                curWeight += w;
+                curMean += (mergedMeans[k] - curMean) * w / curWeight;
+            } else {
+                out = emit(out, curMean, curWeight);
+                soFar += curWeight;
+                limit = quantileLimit(soFar, totalWeight);
+                curMean = mergedMeans[k];
+                curWeight = w;
+            }
+        }
+        centroids = emit(out, curMean, curWeight);
+    }
+
+    // Whether two centroid means must stay apart: different values, one of them the min or max
+    private boolean separates(double a, double b) {
+        return a != b && (a == min || a == max || b == min || b == max);
+    }
+
+    // Cumulative weight up to which a centroid starting at `soFar` may grow
+    private double quantileLimit(double soFar, double totalWeight) {
+        double q = soFar / totalWeight;
+        double k = compression / (2.0 * Math.PI) * Math.asin(2.0 * q - 1.0) + 1.0;
+        if (k >= compression / 4.0) {
+            return totalWeight;
+        }
+        return totalWeight * (Math.sin(k * 2.0 * Math.PI / compression) + 1.0) / 2.0;
+    }
+
+    private int emit(int index, double centroidMean, double centroidWeight) {
+        if (index == means.length) {
+            means = Arrays.copyOf(means, index * 2);
+            weights = Arrays.copyOf(weights, index * 2);
+        }
+        means[index] = centroidMean;
+        weights[index] = centroidWeight;
+        return index + 1;
+    }
+}
@@ -0,0 +1,89 @@
+// Project: Retirement Simulator
+// Package: model
+
+package model;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD kernels behind {@link BatchSimulator}. Only loaded when the
+ * {@code jdk.incubator.vector} module is present; every lane performs
+ * exactly the operations of the matching scalar loop in BatchSimulator.
+ */
+final class VectorBatch {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    private VectorBatch() {
+    }
+
+    static void fixedInvestor(double[] principals, double[] rates, int[] years, double[] out,
+                              int from, int to) {
+        int lanes = SPECIES.length();
+        double[] horizon = new double[lanes];
+        for (int i = from; i < to; i += lanes) {
+            VectorMask<Double> inRange = SPECIES.indexInRange(i, to);
+            int maxYears = loadYears(years, i, to, horizon);
+            DoubleVector yearsV = DoubleVector.fromArray(SPECIES, horizon, 0);
+            DoubleVector growth = DoubleVector.fromArray(SPECIES, rates, i, inRange).add(1.0);
+            DoubleVector value = DoubleVector.fromArray(SPECIES, principals, i, inRange);
+
+            for (int y = 0; y < maxYears; y++) {
+                VectorMask<Double> running = yearsV.compare(VectorOperators.GT, y);
+                value = value.blend(value.mul(growth), running);
+            }
+            value.intoArray(out, i, inRange);
+        }
+    }
+
+    static void maximumExpensed(double[] principals, double[] rates, int[] years, double[] upper,
+                                double[] out, int from, int to) {
+        int lanes = SPECIES.length();
+        double[] horizon = new double[lanes];
+        for (int i = from; i < to; i += lanes) {
+            VectorMask<Double> inRange = SPECIES.indexInRange(i, to);
+            int maxYears = loadYears(years, i, to, horizon);
+            DoubleVector yearsV = DoubleVector.fromArray(SPECIES, horizon, 0);
+            DoubleVector principal = DoubleVector.fromArray(SPECIES, principals, i, inRange);
+            DoubleVector growth = DoubleVector.fromArray(SPECIES, rates, i, inRange).add(1.0);
+            DoubleVector lo = DoubleVector.zero(SPECIES);
+            DoubleVector hi = DoubleVector.fromArray(SPECIES, upper, i, inRange);
+            DoubleVector result = DoubleVector.zero(SPECIES);
+
+            // Lanes drop out of `active` as soon as they converge
+            VectorMask<Double> active = inRange.and(principal.compare(VectorOperators.GT, 0.0));
+            for (int it = 0; it < BatchSimulator.MAX_ITERS && active.anyTrue(); it++) {
+                DoubleVector mid = lo.add(hi).mul(0.5);
+                DoubleVector balance = principal;
+                for (int y = 0; y < maxYears; y++) {
+                    VectorMask<Double> running = yearsV.compare(VectorOperators.GT, y);
+                    balance = balance.blend(balance.mul(growth).sub(mid), running);
+                }
+                VectorMask<Double> done = active.and(
+                        balance.abs().compare(VectorOperators.LE, BatchSimulator.TOLERANCE));
+                result = result.blend(mid, done);
+                active = active.andNot(done);
+                VectorMask<Double> above = balance.compare(VectorOperators.GT, 0.0);
+                lo = lo.blend(mid, active.and(above));
+                hi = hi.blend(mid, active.andNot(above));
+            }
+            // Lanes that used every iteration take the midpoint of their bracket
+            result = result.blend(lo.add(hi).mul(0.5), active);
+            result.intoArray(out, i, inRange);
+        }
+    }
+
+    // Copies the lane horizons as doubles (0 past the end) and returns the longest
+    private static int loadYears(int[] years, int i, int to, double[] horizon) {
+        int maxYears = 0;
+        for (int lane = 0; lane < horizon.length; lane++) {
+            int y = (i + lane < to) ? years[i + lane] : 0;
+            horizon[lane] = y;
+            maxYears = Math.max(maxYears, y);
+        }
+        return maxYears;
+    }
+}
@@ -0,0 +1,245 @@
+// Project: Retirement Simulator
+// Package: model
+
+package model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.IntStream;
+
+/**
+ * Precomputed {@code maximumExpensed} answers over a dense grid of rates and
+ * horizons, for interactive planning where a solve per keystroke is too slow.
+ *
+ * Because the withdrawal is linear in the principal, the surface stores the
+ * payout per dollar, 1 / annuityFactor(rate, years), once per grid point. A
+ * query multiplies by the principal and interpolates linearly between the
+ * two nearest rates (horizons are whole years, so they hit a grid row
+ * exactly). Anything outside the grid is answered by the live solver in
+ * {@link RetirementSimulator#maximumExpensed(double, double, int)}.
+ *
+ * Error bound: linear interpolation over a step h is off by at most
+ * h^2 / 8 * max|f''|. The builder estimates max|f''| * h^2 for every horizon
+ * from the second differences of its row and stores the bound next to the
+ * data, so {@link #errorBound(double, int)} reports it in dollars
+ * (excluding the final rounding to cents).
+ *
+ * File layout (big-endian):
+ * <pre>
+ *   int    magic 'WSRF'
+ *   int    version
+ *   double rateMin
+ *   double rateStep
+ *   int    rateCount
+ *   int    maxYears
+ *   double errorBound[maxYears]          per dollar of principal
+ *   double payout[maxYears][rateCount]   row (years - 1), column rate index
+ * </pre>
+ * {@link #load(Path)} memory-maps the file and reads values in place, so
+ * opening even a large surface costs no parsing and no heap arrays.
+ */
+public class WithdrawalSurface {
+
+    /** Default grid: -5% to 15% in 1 basis-point steps, 1 to 60 years. */
+    public static final double DEFAULT_RATE_MIN = -0.05;
+    public static final double DEFAULT_RATE_MAX = 0.15;
+    public static final double DEFAULT_RATE_STEP = 0.0001;
+    public static final int DEFAULT_MAX_YEARS = 60;
+
+    private static final int MAGIC = 0x57535246;   // "WSRF"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+
+    private final ByteBuffer data;
+    private final DoubleBuffer bounds;
+    private final DoubleBuffer payouts;
+    private final double rateMin;
+    private final double rateStep;
+    private final int rateCount;
+    private final int maxYears;
+
+    private WithdrawalSurface(ByteBuffer data) {
+        if (data.capacity() < HEADER_BYTES) {
+            throw new IllegalArgumentException("Withdrawal surface file is truncated.");
+        }
+        if (data.getInt(0) != MAGIC || data.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Not a withdrawal surface file.");
+        }
+        this.data = data;
+        this.rateMin = data.getDouble(8);
+        this.rateStep = data.getDouble(16);
+        this.rateCount = data.getInt(24);
+        this.maxYears = data.getInt(28);
+        if (data.capacity() != byteSize(rateCount, maxYears)) {
+            throw new IllegalArgumentException("Withdrawal surface file is truncated.");
+        }
+        this.bounds = data.duplicate().position(HEADER_BYTES).slice().asDoubleBuffer();
+        this.payouts = data.duplicate().position(HEADER_BYTES + 8 * maxYears).slice().asDoubleBuffer();
+    }
+
+    /**
+     * Builds the default surface (-5%..15% in 1 bp steps, 1..60 years).
+     */
+    public static WithdrawalSurface build() {
+        return build(DEFAULT_RATE_MIN, DEFAULT_RATE_MAX, DEFAULT_RATE_STEP, DEFAULT_MAX_YEARS);
+    }
+
+    /**
+     * Fills a surface in parallel, one horizon row per task.
+     *
+     * @param rateMin  Lowest rate on the grid (> -100%)
+     * @param rateMax  Highest rate on the grid (>= rateMin)
+     * @param rateStep Spacing between grid rates (> 0)
+     * @param maxYears Longest horizon; rows cover 1..maxYears (> 0)
+     * @return In-memory surface, ready to query or {@link #save}
+     * @throws IllegalArgumentException if the grid is invalid
+     */
+    public static WithdrawalSurface build(double rateMin, double rateMax, double rateStep, int maxYears) {
+        if (rateMin <= -1.0) {
+            throw new IllegalArgumentException("Rate cannot be less than -100%.");
+        }
+        if (!(rateStep > 0.0) || !(rateMax >= rateMin) || Double.isInfinite(rateMax)) {
+            throw new IllegalArgumentException("Rate grid must have a positive step and max >= min.");
+        }
+        if (maxYears <= 0) {
+            throw new IllegalArgumentException("Years must be positive.");
+        }
+        long count = Math.round((rateMax - rateMin) / rateStep) + 1;
+        if (count < 2 || byteSize(count, maxYears) > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Rate grid must have between 2 and ~2^28 points.");
+        }
+        int rateCount = (int) count;
+
+        double[] payout = new double[maxYears * rateCount];
+        double[] bound = new double[maxYears];
+        IntStream.range(0, maxYears).parallel().forEach(row -> {
+            int years = row + 1;
+            int base = row * rateCount;
+            for (int i = 0; i < rateCount; i++) {
+                payout[base + i] = 1.0 / AnalyticSimulator.annuityFactor(rateMin + i * rateStep, years);
+            }
+            // h^2 * f'' ~ second difference; interpolation error <= that / 8
+            double maxSecondDiff = 0.0;
+            for (int i = 1; i < rateCount - 1; i++) {
+                double d2 = Math.abs(payout[base + i - 1] - 2.0 * payout[base + i] + payout[base + i + 1]);
+                maxSecondDiff = Math.max(maxSecondDiff, d2);
+            }
+            // Round-off in the stored values also counts towards the bound
+            bound[row] = maxSecondDiff / 8.0 + 4.0 * Math.ulp(payout[base + rateCount - 1]);
+        });
+
+        ByteBuffer data = ByteBuffer.allocate((int) byteSize(rateCount, maxYears));
+        data.putInt(MAGIC).putInt(VERSION).putDouble(rateMin).putDouble(rateStep)
+                .putInt(rateCount).putInt(maxYears);
+        data.asDoubleBuffer().put(bound).put(payout);
+        return new WithdrawalSurface(data.clear());
+    }
+
+    /**
+     * Memory-maps a surface written by {@link #save}.
+     *
+     * @param file Surface file
+     * @return Surface whose values are read straight from the mapping
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the file is not a surface or is truncated
+     */
+    public static WithdrawalSurface load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return new WithdrawalSurface(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Writes the surface in the binary layout described on the class.
+     *
+     * @param file Destination (created or truncated)
+     * @throws IOException if the file cannot be written
+     */
+    public void save(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer out = data.duplicate().clear();
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+        }
+    }
+
+    /**
+     * Surface-backed {@link RetirementSimulator#maximumExpensed(double, double, int)}.
+     * Inside the grid this costs two buffer reads and a multiply; outside it,
+     * one live solve.
+     *
+     * @param principal Starting retirement balance (>= 0)
+     * @param rate      Annual growth rate as decimal
+     * @param years     Modeled retirement period
+     * @return Optimal annual withdrawal rounded to cents
+     * @throws IllegalArgumentException if inputs are invalid
+     */
+    public double maximumExpensed(double principal, double rate, int years) {
+        double position = (rate - rateMin) / rateStep;
+        if (!contains(position, years) || !(principal > 0.0) || Double.isInfinite(principal)) {
+            // Off the grid, or an input the simulator has to validate
+            return RetirementSimulator.maximumExpensed(principal, rate, years);
+        }
+        int lo = Math.min((int) position, rateCount - 2);
+        double t = position - lo;
+        int base = (years - 1) * rateCount + lo;
+        double payout = payouts.get(base) + t * (payouts.get(base + 1) - payouts.get(base));
+        return roundToCents(principal * payout);
+    }
+
+    /**
+     * @param principal Starting balance of the query
+     * @param years     Horizon of the query
+     * @return Largest interpolation error in dollars for that horizon (before
+     *         rounding to cents), or 0 when the query would use the live solver
+     */
+    public double errorBound(double principal, int years) {
+        if (years < 1 || years > maxYears) {
+            return 0.0;
+        }
+        return Math.abs(principal) * bounds.get(years - 1);
+    }
+
+    /**
+     * @return true if the rate and horizon are answered from the grid
+     */
+    public boolean covers(double rate, int years) {
+        return contains((rate - rateMin) / rateStep, years);
+    }
+
+    public double getRateMin() {
+        return rateMin;
+    }
+
+    public double getRateMax() {
+        return rateMin + (rateCount - 1) * rateStep;
+    }
+
+    public double getRateStep() {
+        return rateStep;
+    }
+
+    public int getMaxYears() {
+        return maxYears;
+    }
+
+    private boolean contains(double position, int years) {
+        return years >= 1 && years <= maxYears && position >= 0.0 && position <= rateCount - 1;
+    }
+
+    private static long byteSize(long rateCount, long maxYears) {
+        return HEADER_BYTES + 8L * maxYears * (rateCount + 1);
+    }
+
+    // Helper: round a monetary value to two decimal places (cents)
+    private static double roundToCents(double x) {
+        return Math.round(x * 100.0) / 100.0;
+    }
+}
@@ -7,4 +7,12 @@
 module RetirementPlan {
 	requires java.desktop;
 	requires java.sql;
+	requires java.net.http;
+	requires jdk.httpserver;
+	requires jdk.jfr;
+	requires static jdk.incubator.vector;
+
+	exports model;
+	exports maxexpensed;
+	exports metrics;
 }
\ No newline at end of file
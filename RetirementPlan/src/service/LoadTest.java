@@ -0,0 +1,109 @@
+// Project: Retirement Simulator
+// Package: service
+
+package service;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import metrics.LatencyHistogram;
+
+/**
+ * Closed-loop load test against the simulator service on localhost.
+ *
+ * Usage:
+ * <pre>
+ *   java -cp RetirementPlan.jar service.LoadTest [clients] [seconds] [baseUrl]
+ * </pre>
+ * Each client sends a {@code /maximumExpensed} request, waits for the
+ * answer, and immediately sends the next, for the given number of seconds
+ * (defaults: 64 clients, 10 seconds). Without a base URL an in-process
+ * server is started on a free port. Prints throughput, latency
+ * percentiles and the server's own /metrics view.
+ */
+public class LoadTest {
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int clients = (args.length > 0) ? Integer.parseInt(args[0]) : 64;
+        int seconds = (args.length > 1) ? Integer.parseInt(args[1]) : 10;
+
+        SimulatorServer embedded = null;
+        String baseUrl;
+        if (args.length > 2) {
+            baseUrl = args[2];
+        } else {
+            embedded = SimulatorServer.start(0);
+            baseUrl = "http://localhost:" + embedded.getPort();
+        }
+
+        ExecutorService executor = SimulatorServer.newRequestExecutor();
+        HttpClient client = HttpClient.newBuilder()
+                .executor(executor)
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        URI target = URI.create(baseUrl + "/maximumExpensed");
+
+        LatencyHistogram latency = new LatencyHistogram();
+        LongAdder failures = new LongAdder();
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+
+        Thread[] workers = new Thread[clients];
+        for (int c = 0; c < clients; c++) {
+            SplittableRandom random = new SplittableRandom(c);
+            workers[c] = new Thread(() -> {
+                while (System.nanoTime() < end) {
+                    String body = String.format("{\"principal\":%d,\"rate\":%.4f,\"years\":%d}",
+                            random.nextInt(10_000, 2_000_000), random.nextDouble(0.0, 0.1),
+                            random.nextInt(10, 60));
+                    HttpRequest request = HttpRequest.newBuilder(target)
+                            .POST(HttpRequest.BodyPublishers.ofString(body))
+                            .build();
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                        if (response.statusCode() != 200) {
+                            failures.increment();
+                        }
+                    } catch (IOException e) {
+                        failures.increment();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    latency.record(System.nanoTime() - start);
+                }
+            }, "load-client-" + c);
+            workers[c].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        LatencyHistogram.Snapshot s = latency.snapshot();
+        System.out.printf("Requests:   %,d (%,d failed) from %d clients in %d s%n",
+                s.getCount(), failures.sum(), clients, seconds);
+        System.out.printf("Throughput: %,.0f requests/s%n", s.getCount() / (double) seconds);
+        System.out.printf("Latency:    mean %.3f ms, p50 %.3f ms, p90 %.3f ms, p99 %.3f ms, max %.3f ms%n",
+                s.getMean() / 1e6, s.percentile(50) / 1e6, s.percentile(90) / 1e6,
+                s.percentile(99) / 1e6, s.getMax() / 1e6);
+
+        HttpResponse<String> serverView = client.send(
+                HttpRequest.newBuilder(URI.create(baseUrl + "/metrics")).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        System.out.println("Server:     " + serverView.body());
+
+        executor.shutdownNow();
+        if (embedded != null) {
+            embedded.close();
+        }
+    }
+}
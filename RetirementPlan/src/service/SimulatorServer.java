@@ -0,0 +1,354 @@
+// Project: Retirement Simulator
+// Package: service
+
+package service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import batch.Scenario;
+import metrics.LatencyHistogram;
+
+/**
+ * Local HTTP/JSON front end for the simulator, built on the JDK's
+ * {@link HttpServer} so the backend needs no extra dependencies.
+ *
+ * Endpoints (POST, JSON body, rates as decimals):
+ * <pre>
+ *   /fixedInvestor     {"principal": 10000, "rate": 0.075, "years": 30}
+ *   /variableInvestor  {"principal": 10000, "rates": [0.05, 0.06]}
+ *   /finallyRetired    {"balance": 500000, "withdrawal": 40000, "rate": 0.05}
+ *   /maximumExpensed   {"principal": 500000, "rate": 0.075, "years": 30}
+ *   /batch             {"scenarios": [{"function": "fixedInvestor", ...}, ...]}
+ *   /metrics           (GET) request counts, throughput and latency percentiles
+ * </pre>
+ * Answers are {"result": value}; a finallyRetired balance that never runs
+ * out answers "never", and a result too large for a double (e.g. decades
+ * of fixedInvestor growth at 1000%) answers null. Bad input is a 400 with
+ * {"error": message}.
+ *
+ * Every request has a deadline ({@code X-Deadline-Ms} header, default
+ * {@value #DEFAULT_DEADLINE_MS} ms). Scenarios are evaluated through the
+ * closed forms ({@link Scenario#evaluateClosedForm()}), so no single input,
+ * not even a finallyRetired that never depletes, can run unbounded; the
+ * deadline is checked before each scenario and an expired request is a 504.
+ *
+ * Requests run on virtual threads when the JDK has them (Java 21+) and on a
+ * cached thread pool otherwise.
+ */
+public class SimulatorServer implements AutoCloseable {
+
+    public static final int DEFAULT_PORT = 8080;
+    static final long DEFAULT_DEADLINE_MS = 1_000;
+    static final long MAX_DEADLINE_MS = 30_000;
+    static final int MAX_BODY_BYTES = 16 << 20;
+
+    private static final String[] ENDPOINTS = {
+        "fixedInvestor", "variableInvestor", "finallyRetired", "maximumExpensed", "batch"
+    };
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final long startNanos = System.nanoTime();
+    private final Map<String, EndpointMetrics> metrics = new LinkedHashMap<>();
+
+    private SimulatorServer(int port) throws IOException {
+        // Headers and body go out as separate writes; without TCP_NODELAY every
+        // response waits ~40 ms on delayed ACKs. Must be set before the first server.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        this.server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        this.executor = newRequestExecutor();
+        server.setExecutor(executor);
+
+        for (String endpoint : ENDPOINTS) {
+            EndpointMetrics m = new EndpointMetrics();
+            metrics.put(endpoint, m);
+            server.createContext("/" + endpoint, exchange -> handle(exchange, endpoint, m));
+        }
+        server.createContext("/metrics", this::handleMetrics);
+    }
+
+    /**
+     * Starts a server bound to localhost.
+     *
+     * @param port Port to listen on, or 0 for any free port
+     * @return Running server
+     * @throws IOException if the port cannot be bound
+     */
+    public static SimulatorServer start(int port) throws IOException {
+        SimulatorServer s = new SimulatorServer(port);
+        s.server.start();
+        return s;
+    }
+
+    /** @return Port the server is listening on */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        SimulatorServer s = start(port);
+        System.out.println("Retirement simulator service listening on http://localhost:" + s.getPort());
+    }
+
+    // =========================
+    // Request handling
+    // =========================
+
+    private void handle(HttpExchange exchange, String endpoint, EndpointMetrics m) throws IOException {
+        long start = System.nanoTime();
+        int status;
+        String body;
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                status = 405;
+                body = error("Use POST with a JSON body.");
+            } else {
+                long deadline = start + deadlineMillis(exchange) * 1_000_000L;
+                Map<String, Object> request = asObject(Json.parse(readBody(exchange)));
+                body = "batch".equals(endpoint)
+                        ? batch(request, deadline)
+                        : result(scenario(endpoint, request), deadline);
+                status = 200;
+            }
+        } catch (DeadlineExceededException e) {
+            status = 504;
+            body = error("Deadline exceeded.");
+            m.timeouts.increment();
+        } catch (IllegalArgumentException | ArithmeticException e) {
+            status = 400;
+            body = error(e.getMessage());
+        } catch (RuntimeException e) {
+            status = 500;
+            body = error("Internal error.");
+        }
+
+        send(exchange, status, body);
+        if (status != 200) {
+            m.errors.increment();
+        }
+        m.requests.increment();
+        m.latency.record(System.nanoTime() - start);
+    }
+
+    private static String result(Scenario scenario, long deadline) {
+        checkDeadline(deadline);
+        double value = scenario.evaluateClosedForm();
+        StringBuilder out = new StringBuilder("{\"result\":");
+        appendResult(out, scenario, value);
+        return out.append('}').toString();
+    }
+
+    // Scenarios fail individually, like rows of a batch file; only the deadline fails the request
+    private static String batch(Map<String, Object> request, long deadline) {
+        Object list = request.get("scenarios");
+        if (!(list instanceof List)) {
+            throw new IllegalArgumentException("Field 'scenarios' must be an array.");
+        }
+        StringBuilder out = new StringBuilder("{\"results\":[");
+        boolean first = true;
+        for (Object item : (List<?>) list) {
+            checkDeadline(deadline);
+            if (!first) {
+                out.append(',');
+            }
+            first = false;
+            try {
+                Map<String, Object> fields = asObject(item);
+                Object function = fields.get("function");
+                if (!(function instanceof String)) {
+                    throw new IllegalArgumentException("Field 'function' must be a string.");
+                }
+                Scenario scenario = scenario((String) function, fields);
+                double value = scenario.evaluateClosedForm();
+                out.append("{\"result\":");
+                appendResult(out, scenario, value);
+                out.append('}');
+            } catch (IllegalArgumentException | ArithmeticException e) {
+                out.append("{\"error\":");
+                Json.string(out, String.valueOf(e.getMessage())).append('}');
+            }
+        }
+        return out.append("]}").toString();
+    }
+
+    private static Scenario scenario(String function, Map<String, Object> fields) {
+        switch (Scenario.Function.fromLabel(function)) {
+            case FIXED_INVESTOR:
+                return Scenario.fixedInvestor(number(fields, "principal"), number(fields, "rate"),
+                        years(fields));
+            case VARIABLE_INVESTOR:
+                Object rates = fields.get("rates");
+                if (!(rates instanceof List)) {
+                    throw new IllegalArgumentException("Field 'rates' must be an array.");
+                }
+                List<?> list = (List<?>) rates;
+                double[] ratesList = new double[list.size()];
+                for (int i = 0; i < ratesList.length; i++) {
+                    if (!(list.get(i) instanceof Double)) {
+                        throw new IllegalArgumentException("Rates must be numbers.");
+                    }
+                    ratesList[i] = (Double) list.get(i);
+                }
+                return Scenario.variableInvestor(number(fields, "principal"), ratesList);
+            case FINALLY_RETIRED:
+                return Scenario.finallyRetired(number(fields, "balance"), number(fields, "withdrawal"),
+                        number(fields, "rate"));
+            default:
+                return Scenario.maximumExpensed(number(fields, "principal"), number(fields, "rate"),
+                        fields.containsKey("years") ? years(fields) : 30);
+        }
+    }
+
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        double uptime = (System.nanoTime() - startNanos) / 1e9;
+        StringBuilder out = new StringBuilder("{\"uptimeSeconds\":");
+        Json.number(out, uptime).append(",\"endpoints\":{");
+        boolean first = true;
+        for (Map.Entry<String, EndpointMetrics> entry : metrics.entrySet()) {
+            if (!first) {
+                out.append(',');
+            }
+            first = false;
+            EndpointMetrics m = entry.getValue();
+            LatencyHistogram.Snapshot s = m.latency.snapshot();
+            Json.string(out, entry.getKey()).append(":{\"requests\":").append(m.requests.sum())
+                    .append(",\"errors\":").append(m.errors.sum())
+                    .append(",\"timeouts\":").append(m.timeouts.sum())
+                    .append(",\"throughputPerSecond\":");
+            Json.number(out, m.requests.sum() / uptime).append(",\"latencyMicros\":{\"mean\":");
+            Json.number(out, s.getMean() / 1e3).append(",\"p50\":");
+            Json.number(out, s.percentile(50) / 1e3).append(",\"p90\":");
+            Json.number(out, s.percentile(90) / 1e3).append(",\"p99\":");
+            Json.number(out, s.percentile(99) / 1e3).append(",\"max\":");
+            Json.number(out, s.getMax() / 1e3).append("}}");
+        }
+        send(exchange, 200, out.append("}}").toString());
+    }
+
+    // =========================
+    // Helpers
+    // =========================
+
+    private static final class EndpointMetrics {
+        final LongAdder requests = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LongAdder timeouts = new LongAdder();
+        final LatencyHistogram latency = new LatencyHistogram();
+    }
+
+    private static final class DeadlineExceededException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        DeadlineExceededException() {
+            super(null, null, false, false);   // no stack trace: this is flow control
+        }
+    }
+
+    private static void checkDeadline(long deadline) {
+        if (System.nanoTime() - deadline > 0) {
+            throw new DeadlineExceededException();
+        }
+    }
+
+    private static long deadlineMillis(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("X-Deadline-Ms");
+        if (header == null) {
+            return DEFAULT_DEADLINE_MS;
+        }
+        try {
+            long ms = Long.parseLong(header.trim());
+            return Math.max(1, Math.min(ms, MAX_DEADLINE_MS));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("X-Deadline-Ms must be a whole number of milliseconds.");
+        }
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (bytes.length > MAX_BODY_BYTES) {
+                throw new IllegalArgumentException("Request body is larger than 16 MB.");
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    // Infinity means "never depletes" only for finallyRetired; elsewhere it is an overflow (null)
+    private static void appendResult(StringBuilder out, Scenario scenario, double value) {
+        if (scenario.getFunction() == Scenario.Function.FINALLY_RETIRED && Double.isInfinite(value)) {
+            out.append("\"never\"");
+        } else {
+            Json.number(out, value);
+        }
+    }
+
+    private static String error(String message) {
+        return Json.string(new StringBuilder("{\"error\":"), String.valueOf(message)).append('}').toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> asObject(Object value) {
+        if (!(value instanceof Map)) {
+            throw new IllegalArgumentException("Expected a JSON object.");
+        }
+        return (Map<String, Object>) value;
+    }
+
+    private static double number(Map<String, Object> fields, String name) {
+        Object value = fields.get(name);
+        if (!(value instanceof Double)) {
+            throw new IllegalArgumentException("Field '" + name + "' must be a number.");
+        }
+        return (Double) value;
+    }
+
+    private static int years(Map<String, Object> fields) {
+        double years = number(fields, "years");
+        if (years != Math.rint(years) || Math.abs(years) > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Field 'years' must be a whole number.");
+        }
+        return (int) years;
+    }
+
+    // Virtual threads on Java 21+, looked up reflectively so the build still targets 17
+    static ExecutorService newRequestExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+}
@@ -0,0 +1,330 @@
+// Project: Retirement Simulator
+// Package: shard
+
+package shard;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import model.MonteCarloSimulator;
+import model.StreamingSummary;
+
+/**
+ * Runs {@link MonteCarloSimulator#summarize} and
+ * {@link MonteCarloSimulator#summarizeRetirement} across several local
+ * worker JVMs, so a job is not limited to one process's heap or cores.
+ *
+ * Usage:
+ * <pre>
+ *   java -cp RetirementPlan.jar shard.ShardCoordinator balance meanRate volatility years paths seed shards [withdrawal]
+ * </pre>
+ *
+ * The job's task tree is cut into shards with
+ * {@link MonteCarloSimulator#shardBounds}. Every shard is a subtree, and its
+ * random stream is derived from the job seed by replaying the tree's
+ * splits, so shards are independent and need nothing but their block
+ * range. Each {@link ShardWorker} streams its summary back over a loopback
+ * socket and the coordinator merges them along the same tree
+ * ({@link MonteCarloSimulator#mergeShards}): the result is bit-identical
+ * to the single-process call with the same arguments.
+ *
+ * A shard whose worker crashes, exits without replying or runs past the
+ * timeout is relaunched on its own, up to {@code maxAttempts} times; the
+ * other shards are unaffected. Invalid inputs are reported by the first
+ * worker and fail the job at once, since retrying cannot fix them.
+ */
+public final class ShardCoordinator {
+
+    /** Attempts per shard used by {@link #main}. */
+    public static final int DEFAULT_ATTEMPTS = 3;
+
+    // Time a cleanly exited worker's reply may still be in flight
+    private static final long REPLY_GRACE_MILLIS = 5_000;
+
+    private static final long POLL_MILLIS = 200;
+
+    private final int workers;
+    private final int maxAttempts;
+    private final long timeoutMillis;
+    private final List<String> jvmOptions;
+    private final Launcher launcher;
+
+    /**
+     * Starts one worker attempt from the command the coordinator built.
+     * Package-private so tests can substitute workers that crash or hang.
+     */
+    interface Launcher {
+        Process start(List<String> command, int shard, int attempt) throws IOException;
+    }
+
+    /**
+     * @param workers       Worker JVMs running at the same time (> 0)
+     * @param maxAttempts   Launches per shard before the job fails (> 0)
+     * @param timeoutMillis Longest a single attempt may run (> 0)
+     * @param jvmOptions    Extra options for every worker JVM (e.g. "-Xmx4g")
+     * @throws IllegalArgumentException if inputs are invalid
+     */
+    public ShardCoordinator(int workers, int maxAttempts, long timeoutMillis, List<String> jvmOptions) {
+        this(workers, maxAttempts, timeoutMillis, jvmOptions, ShardCoordinator::startWorker);
+    }
+
+    /**
+     * Same as the public constructor, with every worker started by {@code launcher}.
+     */
+    ShardCoordinator(int workers, int maxAttempts, long timeoutMillis, List<String> jvmOptions,
+                     Launcher launcher) {
+        if (workers <= 0) {
+            throw new IllegalArgumentException("Workers must be positive.");
+        }
+        if (maxAttempts <= 0) {
+            throw new IllegalArgumentException("Attempts must be positive.");
+        }
+        if (timeoutMillis <= 0) {
+            throw new IllegalArgumentException("Timeout must be positive.");
+        }
+        this.workers = workers;
+        this.maxAttempts = maxAttempts;
+        this.timeoutMillis = timeoutMillis;
+        this.jvmOptions = List.copyOf(jvmOptions);
+        this.launcher = launcher;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 7 || args.length > 8) {
+            System.err.println("Usage: ShardCoordinator <balance> <meanRate> <volatility> <years> <paths> <seed> <shards> [withdrawal]");
+            System.exit(2);
+        }
+        double balance = Double.parseDouble(args[0]);
+        double meanRate = Double.parseDouble(args[1]);
+        double volatility = Double.parseDouble(args[2]);
+        int years = Integer.parseInt(args[3]);
+        int paths = Integer.parseInt(args[4]);
+        long seed = Long.parseLong(args[5]);
+        int shards = Integer.parseInt(args[6]);
+        double withdrawal = (args.length == 8) ? Double.parseDouble(args[7]) : 0.0;
+
+        int workers = Math.max(1, Math.min(shards, Runtime.getRuntime().availableProcessors()));
+        ShardCoordinator coordinator = new ShardCoordinator(workers, DEFAULT_ATTEMPTS,
+                TimeUnit.HOURS.toMillis(1), List.of());
+
+        long start = System.nanoTime();
+        StreamingSummary summary = (withdrawal == 0.0)
+                ? coordinator.summarize(balance, meanRate, volatility, years, paths, seed, shards)
+                : coordinator.summarizeRetirement(balance, withdrawal, meanRate, volatility, years, paths, seed, shards);
+        System.out.printf("paths=%d mean=%.2f stddev=%.2f P5=%.2f P50=%.2f P95=%.2f%n",
+                summary.getCount(), summary.getMean(), summary.getStdDev(),
+                summary.percentile(5), summary.percentile(50), summary.percentile(95));
+        if (withdrawal != 0.0) {
+            System.out.printf("P(depleted within %d years)=%.4f%n", years, summary.probabilityDepletedWithin(years));
+        }
+        System.err.printf("Finished in %,d ms%n", (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Sharded {@link MonteCarloSimulator#summarize}.
+     *
+     * @param shards Desired number of shards (> 0)
+     * @return Same summary as the single-process call
+     * @throws IllegalArgumentException if inputs are invalid
+     * @throws IOException              if a shard keeps failing
+     * @throws InterruptedException     if interrupted while waiting for workers
+     */
+    public StreamingSummary summarize(double principal, double meanRate, double volatility,
+                                      int years, int paths, long seed, int shards)
+            throws IOException, InterruptedException {
+        return run(principal, 0.0, meanRate, volatility, years, paths, seed, shards);
+    }
+
+    /**
+     * Sharded {@link MonteCarloSimulator#summarizeRetirement}.
+     *
+     * @param shards Desired number of shards (> 0)
+     * @return Same summary as the single-process call
+     * @throws IllegalArgumentException if inputs are invalid
+     * @throws IOException              if a shard keeps failing
+     * @throws InterruptedException     if interrupted while waiting for workers
+     */
+    public StreamingSummary summarizeRetirement(double startingBalance, double annualWithdrawal,
+                                                double meanRate, double volatility,
+                                                int years, int paths, long seed, int shards)
+            throws IOException, InterruptedException {
+        if (!(annualWithdrawal > 0) || Double.isInfinite(annualWithdrawal)) {
+            throw new IllegalArgumentException("Withdrawal amount must be greater than zero(0)");
+        }
+        return run(startingBalance, annualWithdrawal, meanRate, volatility, years, paths, seed, shards);
+    }
+
+    private StreamingSummary run(double balance, double withdrawal, double meanRate, double volatility,
+                                 int years, int paths, long seed, int shards)
+            throws IOException, InterruptedException {
+        int[] bounds = MonteCarloSimulator.shardBounds(paths, shards);
+        int count = bounds.length - 1;
+        StreamingSummary[] parts = new StreamingSummary[count];
+        int[] attempts = new int[count];
+        long token = ThreadLocalRandom.current().nextLong();
+
+        // Replies are keyed by (shard, attempt), so a late reply from an
+        // abandoned attempt is ignored
+        Map<Long, CompletableFuture<StreamingSummary>> replies = new ConcurrentHashMap<>();
+        BlockingQueue<Integer> exited = new LinkedBlockingQueue<>();
+        Deque<Integer> pending = new ArrayDeque<>();
+        for (int shard = 0; shard < count; shard++) {
+            pending.add(shard);
+        }
+        Map<Integer, Process> running = new HashMap<>();
+        Map<Integer, Long> deadlines = new HashMap<>();
+
+        try (ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            Thread acceptor = new Thread(() -> acceptReplies(server, token, replies), "shard-replies");
+            acceptor.setDaemon(true);
+            acceptor.start();
+            try {
+                int done = 0;
+                while (done < count) {
+                    while (running.size() < workers && !pending.isEmpty()) {
+                        int shard = pending.poll();
+                        attempts[shard]++;
+                        replies.put(key(shard, attempts[shard]), new CompletableFuture<>());
+                        Process process = launch(server.getLocalPort(), token, shard, attempts[shard],
+                                balance, withdrawal, meanRate, volatility, years, paths, seed,
+                                bounds[shard], bounds[shard + 1]);
+                        running.put(shard, process);
+                        deadlines.put(shard, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis));
+                        process.onExit().thenRun(() -> exited.add(shard));
+                    }
+
+                    Integer shard = exited.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                    // Checked on every pass, so a steady stream of exits cannot keep a
+                    // hung worker alive; its exit is handled as a failure on a later pass
+                    long now = System.nanoTime();
+                    running.forEach((s, p) -> {
+                        if (now - deadlines.get(s) > 0) {
+                            p.destroyForcibly();
+                        }
+                    });
+                    if (shard == null) {
+                        continue;
+                    }
+                    Process process = running.remove(shard);
+                    CompletableFuture<StreamingSummary> reply = replies.remove(key(shard, attempts[shard]));
+                    StreamingSummary summary = collect(process, reply);
+                    if (summary != null) {
+                        parts[shard] = summary;
+                        done++;
+                    } else if (attempts[shard] < maxAttempts) {
+                        pending.add(shard);
+                    } else {
+                        throw new IOException("Shard " + shard + " failed " + attempts[shard]
+                                + " times (last exit code " + process.exitValue() + ").");
+                    }
+                }
+            } finally {
+                running.values().forEach(Process::destroyForcibly);
+            }
+        }
+        return MonteCarloSimulator.mergeShards(bounds, parts);
+    }
+
+    // The shard's summary, or null if this attempt failed and may be retried
+    private static StreamingSummary collect(Process process, CompletableFuture<StreamingSummary> reply)
+            throws InterruptedException {
+        try {
+            int exit = process.exitValue();
+            long wait = (exit == 0 || exit == ShardWorker.EXIT_REJECTED) ? REPLY_GRACE_MILLIS : 0;
+            return (wait > 0) ? reply.get(wait, TimeUnit.MILLISECONDS) : reply.getNow(null);
+        } catch (ExecutionException | CompletionException e) {
+            // The worker rejected its inputs: every attempt would
+            throw new IllegalArgumentException(e.getCause().getMessage(), e.getCause());
+        } catch (TimeoutException e) {
+            return null;
+        }
+    }
+
+    private Process launch(int port, long token, int shard, int attempt, double balance, double withdrawal,
+                           double meanRate, double volatility, int years, int paths, long seed,
+                           int fromBlock, int toBlock) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        // Share the cores between the workers running at the same time
+        int cores = Runtime.getRuntime().availableProcessors();
+        command.add("-Djava.util.concurrent.ForkJoinPool.common.parallelism=" + Math.max(1, cores / workers));
+        command.addAll(jvmOptions);
+        Module module = ShardCoordinator.class.getModule();
+        if (module.isNamed()) {
+            command.add("-p");
+            command.add(System.getProperty("jdk.module.path"));
+            command.add("-m");
+            command.add(module.getName() + "/" + ShardWorker.class.getName());
+        } else {
+            command.add("-cp");
+            command.add(System.getProperty("java.class.path"));
+            command.add(ShardWorker.class.getName());
+        }
+        // Double.toString round-trips exactly, so workers see the same bits
+        command.addAll(List.of(Integer.toString(port), Long.toString(token), Integer.toString(shard),
+                Integer.toString(attempt), Double.toString(balance), Double.toString(withdrawal),
+                Double.toString(meanRate), Double.toString(volatility), Integer.toString(years),
+                Integer.toString(paths), Long.toString(seed),
+                Integer.toString(fromBlock), Integer.toString(toBlock)));
+        return launcher.start(command, shard, attempt);
+    }
+
+    private static Process startWorker(List<String> command, int shard, int attempt) throws IOException {
+        return new ProcessBuilder(command)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+    }
+
+    // Reads one reply per connection until the server socket is closed
+    private static void acceptReplies(ServerSocket server, long token,
+                                      Map<Long, CompletableFuture<StreamingSummary>> replies) {
+        while (!server.isClosed()) {
+            try (Socket socket = server.accept()) {
+                socket.setSoTimeout((int) REPLY_GRACE_MILLIS);
+                DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                if (in.readLong() != token) {
+                    continue;       // not one of ours
+                }
+                int shard = in.readInt();
+                int attempt = in.readInt();
+                byte status = in.readByte();
+                CompletableFuture<StreamingSummary> reply = replies.get(key(shard, attempt));
+                if (reply == null) {
+                    continue;       // abandoned attempt
+                }
+                if (status == ShardWorker.OK) {
+                    reply.complete(StreamingSummary.readFrom(in));
+                } else {
+                    reply.completeExceptionally(new IllegalArgumentException(in.readUTF()));
+                }
+            } catch (IOException e) {
+                // Closed server, or a truncated reply: that attempt counts as failed
+            }
+        }
+    }
+
+    private static long key(int shard, int attempt) {
+        return ((long) shard << 32) | attempt;
+    }
+}
@@ -0,0 +1,81 @@
+// Project: Retirement Simulator
+// Package: shard
+
+package shard;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+
+import model.MonteCarloSimulator;
+import model.StreamingSummary;
+
+/**
+ * Worker JVM started by {@link ShardCoordinator}: computes one shard of a
+ * Monte Carlo run and streams its {@link StreamingSummary} back over a
+ * loopback socket.
+ *
+ * Arguments (all written by the coordinator):
+ * <pre>
+ *   port token shard attempt balance withdrawal meanRate volatility years paths seed fromBlock toBlock
+ * </pre>
+ * Reply: token, shard, attempt, a status byte, then the summary
+ * ({@link #OK}) or an error message ({@link #REJECTED}, exit code {@link #EXIT_REJECTED}).
+ * A malformed command line exits with {@link #EXIT_USAGE} without replying.
+ */
+public final class ShardWorker {
+
+    static final byte OK = 0;
+    static final byte REJECTED = 1;
+
+    /** Exit code after replying {@link #REJECTED}. */
+    static final int EXIT_REJECTED = 2;
+
+    /** Exit code for a wrong number of arguments (sysexits EX_USAGE). */
+    static final int EXIT_USAGE = 64;
+
+    private ShardWorker() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 13) {
+            System.err.println("ShardWorker is started by ShardCoordinator.");
+            System.exit(EXIT_USAGE);
+        }
+        int port = Integer.parseInt(args[0]);
+        long token = Long.parseLong(args[1]);
+        int shard = Integer.parseInt(args[2]);
+        int attempt = Integer.parseInt(args[3]);
+
+        StreamingSummary summary = null;
+        String error = null;
+        try {
+            summary = MonteCarloSimulator.summarizeShard(
+                    Double.parseDouble(args[4]), Double.parseDouble(args[5]),
+                    Double.parseDouble(args[6]), Double.parseDouble(args[7]),
+                    Integer.parseInt(args[8]), Integer.parseInt(args[9]), Long.parseLong(args[10]),
+                    Integer.parseInt(args[11]), Integer.parseInt(args[12]));
+        } catch (IllegalArgumentException e) {
+            error = e.getMessage();
+        }
+
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+            out.writeLong(token);
+            out.writeInt(shard);
+            out.writeInt(attempt);
+            if (error == null) {
+                out.writeByte(OK);
+                summary.writeTo(out);
+            } else {
+                out.writeByte(REJECTED);
+                out.writeUTF(String.valueOf(error));
+            }
+        }
+        if (error != null) {
+            System.exit(EXIT_REJECTED);
+        }
+    }
+}
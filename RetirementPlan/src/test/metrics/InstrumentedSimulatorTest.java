@@ -0,0 +1,78 @@
+// Project: Retirement Simulator
+// Package: metrics
+
+package metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import batch.Scenario;
+import model.CachedSimulator;
+import model.RetirementSimulator;
+
+/**
+ * The real entry points (batch scenarios, which the server also runs, and
+ * the cache) must show up in the statistics once instrumentation is on.
+ */
+class InstrumentedSimulatorTest {
+
+    @AfterEach
+    void disable() {
+        InstrumentedSimulator.setEnabled(false);
+    }
+
+    @Test
+    void scenariosAreCounted() {
+        InstrumentedSimulator.setEnabled(true);
+        long fixed = calls("fixedInvestor");
+        long retired = calls("finallyRetired");
+        long expensed = calls("maximumExpensed");
+        long steps = InstrumentedSimulator.snapshot().get("maximumExpensed").getSolverSteps();
+        long errors = InstrumentedSimulator.snapshot().get("maximumExpensed").getErrors();
+
+        Scenario.fixedInvestor(10_000.0, 0.05, 30).evaluate();
+        Scenario.fixedInvestor(10_000.0, 0.05, 30).evaluateClosedForm();
+        assertEquals(Double.POSITIVE_INFINITY, Scenario.finallyRetired(10_000.0, 100.0, 0.05).evaluate());
+        Scenario.maximumExpensed(10_000.0, 0.05, 30).evaluate();
+        Scenario.maximumExpensed(10_000.0, 0.05, 30).evaluateClosedForm();
+        assertThrows(IllegalArgumentException.class, () -> Scenario.maximumExpensed(10_000.0, -2.0, 30).evaluate());
+
+        assertEquals(fixed + 2, calls("fixedInvestor"));
+        assertEquals(retired + 1, calls("finallyRetired"));
+        assertEquals(expensed + 3, calls("maximumExpensed"));
+        assertEquals(errors + 1, InstrumentedSimulator.snapshot().get("maximumExpensed").getErrors());
+        long solved = InstrumentedSimulator.snapshot().get("maximumExpensed").getSolverSteps();
+        assertEquals(RetirementSimulator.maximumExpensedWithSteps(10_000.0, 0.05, 30).getSolverSteps(),
+                solved - steps);
+    }
+
+    @Test
+    void cacheMissesAreCountedAndHitsAreNot() {
+        InstrumentedSimulator.setEnabled(true);
+        long expensed = calls("maximumExpensed");
+        long retired = calls("finallyRetired");
+        CachedSimulator cache = new CachedSimulator(64);
+
+        cache.maximumExpensed(10_000.0, 0.05, 30);
+        cache.maximumExpensed(10_000.0, 0.05, 30);
+        cache.finallyRetired(10_000.0, 1_000.0, 0.05);
+        cache.finallyRetired(10_000.0, 1_000.0, 0.05);
+
+        assertEquals(expensed + 1, calls("maximumExpensed"));
+        assertEquals(retired + 1, calls("finallyRetired"));
+    }
+
+    @Test
+    void withStepsMatchesTheRoundedWithdrawal() {
+        RetirementSimulator.Expensed solved = RetirementSimulator.maximumExpensedWithSteps(10_000.0, 0.05, 30);
+        assertEquals(RetirementSimulator.maximumExpensed(10_000.0, 0.05, 30), solved.getWithdrawal());
+        assertEquals(0, RetirementSimulator.maximumExpensedWithSteps(0.0, 0.05, 30).getSolverSteps());
+    }
+
+    private static long calls(String function) {
+        return InstrumentedSimulator.snapshot().get(function).getCalls();
+    }
+}
@@ -0,0 +1,112 @@
+// Project: Retirement Simulator
+// Package: model
+
+package model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Every {@link AnalyticSimulator} fast path against the iterative
+ * {@link RetirementSimulator} it replaces, on random inputs that include
+ * near-zero and negative rates and withdrawals that almost balance the
+ * interest (where the nudge and replay branches run).
+ */
+class AnalyticSimulatorTest {
+
+    private static final int CASES = 20_000;
+
+    private static final double CENT = 0.01 + 1e-9;
+
+    @Test
+    void fixedInvestorMatchesIterationWithinACent() {
+        SplittableRandom random = new SplittableRandom(1);
+        for (int i = 0; i < CASES; i++) {
+            double principal = random.nextDouble(0.0, 1_000_000.0);
+            double rate = randomRate(random);
+            int years = random.nextInt(0, 61);
+            double expected = RetirementSimulator.fixedInvestor(principal, rate, years);
+            double actual = AnalyticSimulator.fixedInvestor(principal, rate, years);
+            assertEquals(expected, actual, CENT,
+                    () -> "fixedInvestor(" + principal + ", " + rate + ", " + years + ")");
+        }
+    }
+
+    @Test
+    void finallyRetiredMatchesIteration() {
+        SplittableRandom random = new SplittableRandom(2);
+        for (int i = 0; i < CASES; i++) {
+            double balance = random.nextDouble(1.0, 2_000_000.0);
+            double rate;
+            double withdrawal;
+            switch (i % 3) {
+                case 0:
+                    // Barely more than the interest at an ordinary rate: about
+                    // ln(1 / excess) / rate years, with ambiguous final years
+                    rate = random.nextDouble(0.01, 0.15);
+                    withdrawal = balance * rate * (1.0 + random.nextDouble(1e-9, 1e-3));
+                    break;
+                case 1:
+                    // Lands close to an exact multiple of the balance
+                    rate = randomRate(random);
+                    withdrawal = balance / random.nextInt(1, 80) * (1.0 + random.nextDouble(-1e-12, 1e-12));
+                    break;
+                default:
+                    rate = randomRate(random);
+                    withdrawal = random.nextDouble(100.0, 200_000.0);
+                    break;
+            }
+            if (balance * rate >= withdrawal) {
+                continue;       // the iterative loop never ends there
+            }
+            double w = withdrawal;
+            double r = rate;
+            int expected = RetirementSimulator.finallyRetired(balance, w, r);
+            int actual = AnalyticSimulator.finallyRetired(balance, w, r);
+            assertEquals(expected, actual,
+                    () -> "finallyRetired(" + balance + ", " + w + ", " + r + ")");
+        }
+    }
+
+    @Test
+    void finallyRetiredReportsNeverDepletingBalances() {
+        assertEquals(AnalyticSimulator.NEVER_DEPLETES, AnalyticSimulator.finallyRetired(100_000.0, 5_000.0, 0.05));
+        assertEquals(AnalyticSimulator.NEVER_DEPLETES, AnalyticSimulator.finallyRetired(100_000.0, 4_000.0, 0.05));
+        assertEquals(0, AnalyticSimulator.finallyRetired(0.0, 4_000.0, 0.05));
+    }
+
+    @Test
+    void maximumExpensedMatchesSolverWithinACent() {
+        SplittableRandom random = new SplittableRandom(3);
+        for (int i = 0; i < CASES; i++) {
+            double principal = random.nextDouble(0.0, 2_000_000.0);
+            double rate = randomRate(random);
+            int years = random.nextInt(1, 61);
+            double expected = RetirementSimulator.maximumExpensed(principal, rate, years);
+            double actual = AnalyticSimulator.maximumExpensed(principal, rate, years);
+            assertEquals(expected, actual, CENT,
+                    () -> "maximumExpensed(" + principal + ", " + rate + ", " + years + ")");
+            // The withdrawal found must leave (almost) nothing behind
+            assertTrue(Math.abs(AnalyticSimulator.endBalance(principal, rate, years, actual))
+                    <= AnalyticSimulator.accumulationFactor(rate, years) * CENT);
+        }
+    }
+
+    // Mix of ordinary, negative and near-zero rates
+    private static double randomRate(SplittableRandom random) {
+        switch (random.nextInt(4)) {
+            case 0:
+                return random.nextDouble(-1e-9, 1e-9);
+            case 1:
+                return random.nextDouble(-0.2, 0.0);
+            case 2:
+                return 0.0;
+            default:
+                return random.nextDouble(0.0, 0.15);
+        }
+    }
+}
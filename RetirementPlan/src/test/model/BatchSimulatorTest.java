@@ -0,0 +1,96 @@
+// Project: Retirement Simulator
+// Package: model
+
+package model;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The SIMD and scalar paths must give bit-identical results, and both must
+ * agree with {@link RetirementSimulator}. Surefire adds the Vector API
+ * module, so both paths really run.
+ */
+class BatchSimulatorTest {
+
+    // Two full chunks plus a tail that is not a multiple of any lane count
+    private static final int SCENARIOS = 2 * 4096 + 13;
+
+    private final boolean vectorized = BatchSimulator.isVectorized();
+
+    @AfterEach
+    void restore() {
+        BatchSimulator.setVectorized(vectorized);
+    }
+
+    @Test
+    void fixedInvestorPathsAgree() {
+        Random random = new Random(20);
+        double[] principals = new double[SCENARIOS];
+        double[] rates = new double[SCENARIOS];
+        int[] years = new int[SCENARIOS];
+        for (int i = 0; i < SCENARIOS; i++) {
+            principals[i] = (i % 17 == 0) ? 0.0 : random.nextDouble() * 1e6;
+            rates[i] = -0.5 + random.nextDouble();
+            years[i] = random.nextInt(61);     // mixed horizons, including 0
+        }
+
+        double[] simd = run(true, principals, rates, years, false);
+        double[] scalar = run(false, principals, rates, years, false);
+        assertArrayEquals(scalar, simd);
+        for (int i = 0; i < SCENARIOS; i++) {
+            assertEquals(RetirementSimulator.fixedInvestor(principals[i], rates[i], years[i]), scalar[i]);
+        }
+    }
+
+    @Test
+    void maximumExpensedPathsAgree() {
+        Random random = new Random(21);
+        double[] principals = new double[SCENARIOS];
+        double[] rates = new double[SCENARIOS];
+        int[] years = new int[SCENARIOS];
+        for (int i = 0; i < SCENARIOS; i++) {
+            principals[i] = (i % 13 == 0) ? 0.0 : random.nextDouble() * 1e6;
+            rates[i] = -0.3 + 0.6 * random.nextDouble();
+            years[i] = 1 + random.nextInt(60);
+        }
+
+        double[] simd = run(true, principals, rates, years, true);
+        double[] scalar = run(false, principals, rates, years, true);
+        assertArrayEquals(scalar, simd);
+        for (int i = 0; i < SCENARIOS; i++) {
+            // Both solvers stop within TOLERANCE of a zero balance, so at most a cent apart
+            assertEquals(RetirementSimulator.maximumExpensed(principals[i], rates[i], years[i]), scalar[i],
+                    0.010001, "scenario " + i);
+        }
+    }
+
+    @Test
+    void longHorizonBracketDoesNotOverflow() {
+        double[] principals = {1_000.0, 1_000.0, 0.0};
+        double[] rates = {1.0, 0.05, 1.0};
+        int[] years = {1_100, 5_000, 1_100};
+        for (boolean simd : new boolean[] {true, false}) {
+            double[] out = run(simd, principals, rates, years, true);
+            assertEquals(1_000.0, out[0]);
+            assertEquals(50.0, out[1]);
+            assertEquals(0.0, out[2]);
+        }
+    }
+
+    private static double[] run(boolean simd, double[] principals, double[] rates, int[] years, boolean expensed) {
+        assertEquals(simd, BatchSimulator.setVectorized(simd), "jdk.incubator.vector must be resolved");
+        double[] out = new double[principals.length];
+        if (expensed) {
+            BatchSimulator.maximumExpensed(principals, rates, years, out);
+        } else {
+            BatchSimulator.fixedInvestor(principals, rates, years, out);
+        }
+        return out;
+    }
+}
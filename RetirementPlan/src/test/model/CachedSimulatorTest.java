@@ -0,0 +1,48 @@
+// Project: Retirement Simulator
+// Package: model
+
+package model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Invalid inputs must reach the simulator's validation instead of being
+ * answered from an entry that happens to share their packed key.
+ */
+class CachedSimulatorTest {
+
+    @Test
+    void negativeWithdrawalDoesNotHitLargeWithdrawalEntry() {
+        CachedSimulator cache = new CachedSimulator(64);
+        // (2^40 - 1) cents << 24 and -1 cent << 24 have the same 64 bits
+        double largest = ((1L << 40) - 1) / 100.0;
+        assertEquals(1, cache.finallyRetired(1_000.0, largest, 0.0));
+        assertThrows(IllegalArgumentException.class, () -> cache.finallyRetired(1_000.0, -0.01, 0.0));
+        assertEquals(0, cache.getHits());
+    }
+
+    @Test
+    void invalidInputsThrowInsteadOfRounding() {
+        CachedSimulator cache = new CachedSimulator(64);
+        assertThrows(IllegalArgumentException.class, () -> cache.finallyRetired(-0.001, 100.0, 0.05));
+        assertThrows(IllegalArgumentException.class, () -> cache.maximumExpensed(1_000.0, 0.05, 0));
+        assertThrows(IllegalArgumentException.class, () -> cache.maximumExpensed(1_000.0, -1.00001, 30));
+    }
+
+    @Test
+    void validInputsThatQuantizeToInvalidOnesBypassTheCache() {
+        CachedSimulator cache = new CachedSimulator(64);
+        assertEquals(AnalyticSimulator.finallyRetired(1_000.0, 0.004, 0.05),
+                cache.finallyRetired(1_000.0, 0.004, 0.05));
+        assertEquals(AnalyticSimulator.finallyRetired(1_000.0, 10.0, -0.99996),
+                cache.finallyRetired(1_000.0, 10.0, -0.99996));
+        assertEquals(RetirementSimulator.maximumExpensed(1_000.0, -0.99996, 30),
+                cache.maximumExpensed(1_000.0, -0.99996, 30));
+        assertEquals(RetirementSimulator.maximumExpensed(0.004, 0.05, 30),
+                cache.maximumExpensed(0.004, 0.05, 30));
+        assertEquals(0, cache.getHits() + cache.getMisses());
+    }
+}
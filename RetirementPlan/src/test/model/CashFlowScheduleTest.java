@@ -0,0 +1,65 @@
+// Project: Retirement Simulator
+// Package: model
+
+package model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Depletion counts at the edges, against {@link RetirementSimulator#finallyRetired},
+ * and the four-path ending balances against the one-path loop.
+ */
+class CashFlowScheduleTest {
+
+    @Test
+    void emptyBalanceAtRetirementLastsNoMonths() {
+        CashFlowSchedule schedule = CashFlowSchedule.compile(0.05, 0.0, 0.0, 0, 0.0, 360);
+        assertEquals(RetirementSimulator.finallyRetired(0.0, 100.0, 0.05), schedule.finallyRetired(0.0, 100.0));
+        assertEquals(0, schedule.finallyRetired(0.0, 100.0, new double[360], 0));
+    }
+
+    @Test
+    void contributionsBeforeRetirementCount() {
+        CashFlowSchedule schedule = CashFlowSchedule.compile(0.0, 0.0, 0.0, 12, 100.0, 360);
+        assertEquals(12, schedule.finallyRetired(0.0, 100.0));
+        assertEquals(12, schedule.finallyRetired(0.0, 100.0, new double[372], 0));
+    }
+
+    @Test
+    void emptyBalanceEndsNegativeAfterWithdrawals() {
+        CashFlowSchedule schedule = CashFlowSchedule.compile(0.0, 0.0, 0.0, 0, 0.0, 12);
+        assertEquals(-1_200.0, schedule.endBalance(0.0, 100.0, new double[12], 0));
+        assertEquals(schedule.endBalance(0.0, 100.0), schedule.endBalance(0.0, 100.0, new double[12], 0));
+    }
+
+    @Test
+    void endBalancesMatchEndBalanceOnEveryPath() {
+        Random random = new Random(13);
+        for (int savingMonths : new int[] {0, 24}) {
+            CashFlowSchedule schedule = CashFlowSchedule.compile(0.06, 0.004, 0.02, savingMonths, 250.0, 120);
+            int months = schedule.getMonths();
+            for (int paths : new int[] {1, 5, 7, 10}) {
+                double[] returns = new double[paths * months];
+                for (int t = 0; t < returns.length; t++) {
+                    returns[t] = 0.005 + 0.04 * random.nextGaussian();
+                }
+                for (double principal : new double[] {0.0, 50_000.0}) {
+                    double[] out = new double[paths];
+                    schedule.endBalances(principal, 600.0, returns, out);
+                    for (int p = 0; p < paths; p++) {
+                        assertEquals(schedule.endBalance(principal, 600.0, returns, p * months), out[p],
+                                "path " + p + " of " + paths);
+                    }
+                    if (principal == 0.0 && savingMonths == 0) {
+                        assertTrue(out[paths - 1] < 0.0);
+                    }
+                }
+            }
+        }
+    }
+}
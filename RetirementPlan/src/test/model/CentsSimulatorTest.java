@@ -0,0 +1,145 @@
+// Project: Retirement Simulator
+// Package: model
+
+package model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Interest against {@link BigDecimal} half-even division, and the solver
+ * and depletion count against plain ledger replays.
+ */
+class CentsSimulatorTest {
+
+    private static final BigDecimal SCALE = BigDecimal.valueOf(CentsSimulator.RATE_SCALE);
+
+    @Test
+    void interestMatchesBigDecimalHalfEven() {
+        Random random = new Random(19);
+        for (int i = 0; i < 200_000; i++) {
+            // Balances from cents up to ~1e17 cents, well past the split at ~$920M
+            long balance = (long) Math.pow(10.0, random.nextDouble() * 17.0);
+            if (random.nextBoolean()) {
+                balance = -balance;
+            }
+            long rateUnits = random.nextInt(4) == 0
+                    ? random.nextInt(3 * (int) CentsSimulator.RATE_SCALE) - CentsSimulator.RATE_SCALE + 1
+                    : random.nextInt(20_000_001) - 5_000_000;
+            BigInteger expected = BigDecimal.valueOf(balance).multiply(BigDecimal.valueOf(rateUnits))
+                    .divide(SCALE, 0, RoundingMode.HALF_EVEN).toBigIntegerExact();
+            if (expected.bitLength() < 62) {
+                assertEquals(expected.longValueExact(), CentsSimulator.interest(balance, rateUnits),
+                        balance + " at " + rateUnits);
+            }
+        }
+    }
+
+    @Test
+    void interestRoundsTiesToEvenOnBothPaths() {
+        long onePercent = CentsSimulator.RATE_SCALE / 100;
+        assertEquals(0, CentsSimulator.interest(50, onePercent));       // 0.5 cents
+        assertEquals(2, CentsSimulator.interest(150, onePercent));      // 1.5 cents
+        assertEquals(-2, CentsSimulator.interest(-150, onePercent));
+        // 10^18 + 50 cents at 1%: the product overflows a long, so the split path runs
+        long big = 1_000_000_000_000_000_000L;
+        assertEquals(10_000_000_000_000_000L, CentsSimulator.interest(big + 50, onePercent));
+        assertEquals(10_000_000_000_000_002L, CentsSimulator.interest(big + 150, onePercent));
+    }
+
+    @Test
+    void maximumExpensedIsLargestWithdrawalThatLasts() {
+        Random random = new Random(20);
+        for (int i = 0; i < 40; i++) {
+            long principal = 1 + random.nextInt(200_000);
+            double rate = -0.2 + 0.4 * random.nextDouble();
+            int years = 1 + random.nextInt(12);
+            double[] rates = new double[years];
+            Arrays.fill(rates, rate);
+
+            // Brute force: the ending balance only falls as the withdrawal grows
+            long best = 0;
+            while (lasts(principal, rates, best + 1)) {
+                best++;
+            }
+            assertEquals(best, CentsSimulator.maximumExpensed(principal, rate, years),
+                    principal + " at " + rate + " for " + years);
+        }
+    }
+
+    @Test
+    void maximumExpensedOnLargePrincipalsIsTight() {
+        Random random = new Random(21);
+        for (int i = 0; i < 200; i++) {
+            long principal = (long) Math.pow(10.0, 2.0 + random.nextDouble() * 13.0);
+            double rate = -0.1 + 0.3 * random.nextDouble();
+            int years = 1 + random.nextInt(60);
+            double[] rates = new double[years];
+            Arrays.fill(rates, rate);
+            long withdrawal = CentsSimulator.maximumExpensed(principal, rate, years);
+            assertTrue(lasts(principal, rates, withdrawal));
+            assertFalse(lasts(principal, rates, withdrawal + 1));
+        }
+    }
+
+    @Test
+    void finallyRetiredMatchesLedgerAndDetectsNeverDepleting() {
+        // 5% of $1,000 is exactly the withdrawal: the balance never shrinks
+        assertEquals(CentsSimulator.NEVER_DEPLETES, CentsSimulator.finallyRetired(100_000, 5_000, 0.05));
+        assertEquals(CentsSimulator.NEVER_DEPLETES, CentsSimulator.finallyRetired(100_000, 4_999, 0.05));
+        assertEquals(CentsSimulator.NEVER_DEPLETES, CentsSimulator.finallyRetired(100_000, 1, 0.0001));
+        assertEquals(0, CentsSimulator.finallyRetired(0, 100, 0.05));
+
+        Random random = new Random(22);
+        for (int i = 0; i < 500; i++) {
+            long balance = 1 + random.nextInt(10_000_000);
+            long withdrawal = 1 + random.nextInt(2_000_000);
+            double rate = -0.3 + 0.5 * random.nextDouble();
+            int expected = replay(balance, withdrawal, rate, 10_000);
+            assertEquals(expected, CentsSimulator.finallyRetired(balance, withdrawal, rate),
+                    balance + " - " + withdrawal + " at " + rate);
+        }
+    }
+
+    @Test
+    void ratesThatRoundToMinusOneHundredPercentAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> CentsSimulator.rateUnits(-0.999999999));
+        assertThrows(IllegalArgumentException.class, () -> CentsSimulator.rateUnits(-1.0));
+        assertEquals(-99_999_999L, CentsSimulator.rateUnits(-0.99999999));
+        assertThrows(IllegalArgumentException.class,
+                () -> CentsSimulator.finallyRetired(100_000, 100, -0.999999999));
+    }
+
+    // Whole ledger ends at or above zero, replayed year by year
+    private static boolean lasts(long principal, double[] rates, long withdrawal) {
+        long[] balances = CentsSimulator.ledger(principal, rates, withdrawal);
+        return balances[balances.length - 1] >= 0;
+    }
+
+    // Years until the balance is depleted, or NEVER_DEPLETES if it survives
+    // `limit` years or grows past what a long can hold
+    private static int replay(long balance, long withdrawal, double rate, int limit) {
+        double[] oneYear = {rate};
+        for (int year = 1; year <= limit; year++) {
+            try {
+                balance = CentsSimulator.ledger(balance, oneYear, withdrawal)[1];
+            } catch (ArithmeticException e) {
+                return CentsSimulator.NEVER_DEPLETES;
+            }
+            if (balance <= 0) {
+                return year;
+            }
+        }
+        return CentsSimulator.NEVER_DEPLETES;
+    }
+}
@@ -0,0 +1,95 @@
+// Project: Retirement Simulator
+// Package: model
+
+package model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Off-heap percentiles and drawdowns against the same paths copied into a
+ * plain {@code double[paths][periods]} and queried by sorting.
+ */
+class PathStoreTest {
+
+    private static final int PATHS = 5_000;
+    private static final int YEARS = 25;
+
+    @Test
+    void percentilesAndDrawdownsMatchOnHeapCopy() throws IOException {
+        try (PathStore store = PathStore.allocate(PATHS, YEARS + 1)) {
+            MonteCarloSimulator.MonteCarloResult result =
+                    MonteCarloSimulator.simulate(10_000.0, 0.06, 0.18, YEARS, PATHS, 42L, store);
+            double[][] heap = new double[PATHS][YEARS + 1];
+            for (int p = 0; p < PATHS; p++) {
+                for (int t = 0; t <= YEARS; t++) {
+                    heap[p][t] = store.get(p, t);
+                }
+            }
+
+            for (int t = 0; t <= YEARS; t++) {
+                double[] column = new double[PATHS];
+                for (int p = 0; p < PATHS; p++) {
+                    column[p] = heap[p][t];
+                }
+                Arrays.sort(column);
+                for (double percent : new double[] {0.0, 1.0, 25.0, 50.0, 95.0, 99.9, 100.0}) {
+                    assertEquals(nearestRank(column, percent), store.percentile(t, percent),
+                            "period " + t + " p" + percent);
+                }
+            }
+            for (double percent : new double[] {5.0, 50.0, 95.0}) {
+                assertEquals(result.percentile(percent), store.percentile(YEARS, percent));
+            }
+
+            double[] drawdowns = new double[PATHS];
+            DoubleBuffer offHeap = store.maxDrawdowns();
+            for (int p = 0; p < PATHS; p++) {
+                drawdowns[p] = maxDrawdown(heap[p]);
+                assertEquals(drawdowns[p], offHeap.get(p), "path " + p);
+            }
+            Arrays.sort(drawdowns);
+            for (double percent : new double[] {0.0, 50.0, 95.0, 100.0}) {
+                assertEquals(nearestRank(drawdowns, percent), store.drawdownPercentile(percent));
+            }
+        }
+    }
+
+    @Test
+    void negativeBalanceIsATotalLoss() throws IOException {
+        try (PathStore store = PathStore.allocate(3, 3)) {
+            double[][] paths = {{0.0, 100.0, -50.0}, {100.0, 40.0, 120.0}, {-10.0, -20.0, 5.0}};
+            for (int p = 0; p < paths.length; p++) {
+                for (int t = 0; t < paths[p].length; t++) {
+                    store.set(p, t, paths[p][t]);
+                }
+            }
+            DoubleBuffer drawdowns = store.maxDrawdowns();
+            assertEquals(1.0, drawdowns.get(0));
+            assertEquals(0.6, drawdowns.get(1), 1e-15);
+            assertEquals(0.0, drawdowns.get(2));
+        }
+    }
+
+    private static double nearestRank(double[] sorted, double percent) {
+        int rank = Math.max(1, (int) Math.ceil(percent / 100.0 * sorted.length));
+        return sorted[rank - 1];
+    }
+
+    private static double maxDrawdown(double[] path) {
+        double peak = 0.0;
+        double worst = 0.0;
+        for (double balance : path) {
+            peak = Math.max(peak, balance);
+            if (peak > 0.0) {
+                worst = Math.max(worst, Math.min(1.0, (peak - balance) / peak));
+            }
+        }
+        return worst;
+    }
+}
@@ -0,0 +1,36 @@
+// Project: Retirement Simulator
+// Package: model
+
+package model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Malformed correlation matrices are rejected with the square-matrix
+ * message, whichever row is bad.
+ */
+class PortfolioTest {
+
+    private static final double[] WEIGHTS = {0.5, 0.5};
+    private static final double[] MEANS = {0.07, 0.03};
+    private static final double[] VOLATILITIES = {0.15, 0.05};
+
+    @Test
+    void rejectsNullLaterRow() {
+        assertSquareMessage(new double[][] {{1.0, 0.2}, null});
+    }
+
+    @Test
+    void rejectsShortLaterRow() {
+        assertSquareMessage(new double[][] {{1.0, 0.2}, {0.2}});
+    }
+
+    private static void assertSquareMessage(double[][] correlation) {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> new Portfolio(WEIGHTS, MEANS, VOLATILITIES, correlation));
+        assertEquals("Correlation matrix must be square.", e.getMessage());
+    }
+}
@@ -0,0 +1,99 @@
+// Project: Retirement Simulator
+// Package: model
+
+package model;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Random edits against a plain array of rates replayed through
+ * {@link RetirementSimulator#variableInvestor}.
+ */
+class RateScheduleTest {
+
+    private static final double RELATIVE = 1e-11;
+
+    @Test
+    void randomEditsMatchVariableInvestor() {
+        Random random = new Random(18);
+        for (int trial = 0; trial < 50; trial++) {
+            int years = 1 + random.nextInt(200);
+            double[] rates = new double[years];
+            for (int y = 0; y < years; y++) {
+                rates[y] = randomRate(random);
+            }
+            RateSchedule schedule = new RateSchedule(rates);
+
+            for (int edit = 0; edit < 200; edit++) {
+                int from = random.nextInt(years);
+                int to = from + 1 + random.nextInt(years - from);
+                double rate = randomRate(random);
+                switch (random.nextInt(3)) {
+                    case 0:
+                        schedule.setRate(from, rate);
+                        rates[from] = rate;
+                        break;
+                    case 1:
+                        schedule.setRange(from, to, rate);
+                        Arrays.fill(rates, from, to, rate);
+                        break;
+                    default:
+                        // A point edit inside a pending range pushes the range down first
+                        schedule.setRange(from, to, rate);
+                        Arrays.fill(rates, from, to, rate);
+                        int inside = from + random.nextInt(to - from);
+                        double point = randomRate(random);
+                        schedule.setRate(inside, point);
+                        rates[inside] = point;
+                        break;
+                }
+                check(schedule, rates, random.nextInt(years + 1));
+            }
+        }
+    }
+
+    @Test
+    void largeThenSmallFactorsDoNotOverflow() {
+        double[] rates = new double[2048];
+        RateSchedule schedule = new RateSchedule(rates);
+        schedule.setRange(0, 1024, 1.0);
+        schedule.setRange(1024, 2048, -0.5);
+        Arrays.fill(rates, 0, 1024, 1.0);
+        Arrays.fill(rates, 1024, 2048, -0.5);
+
+        assertEquals(1e-10, schedule.futureValue(1e-10));
+        assertEquals(RetirementSimulator.variableInvestor(1e-10, rates), schedule.futureValue(1e-10));
+        assertEquals(Math.scalb(1e-10, 1024), schedule.valueAt(1e-10, 1024));
+        assertEquals(1e-10, schedule.valueAt(1e-10, 2048));
+        assertEquals(Double.POSITIVE_INFINITY, schedule.valueAt(1.0, 1024));
+
+        // Same schedule built point by point, without pending ranges
+        assertEquals(1e-10, new RateSchedule(rates).futureValue(1e-10));
+        schedule.setRate(1500, 0.0);
+        rates[1500] = 0.0;
+        assertEquals(RetirementSimulator.variableInvestor(1e-10, rates), schedule.futureValue(1e-10));
+    }
+
+    private static void check(RateSchedule schedule, double[] rates, int year) {
+        assertArrayEquals(rates, schedule.toArray(), 1e-15);      // stored as 1 + rate
+        double principal = 10_000.0;
+        assertClose(RetirementSimulator.variableInvestor(principal, rates), schedule.futureValue(principal));
+        double expected = (year == 0) ? principal
+                : RetirementSimulator.variableInvestor(principal, Arrays.copyOf(rates, year));
+        assertClose(expected, schedule.valueAt(principal, year));
+    }
+
+    private static void assertClose(double expected, double actual) {
+        assertEquals(expected, actual, RELATIVE * Math.abs(expected));
+    }
+
+    private static double randomRate(Random random) {
+        return -0.5 + random.nextDouble();
+    }
+}
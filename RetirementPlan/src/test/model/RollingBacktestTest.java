@@ -0,0 +1,83 @@
+// Project: Retirement Simulator
+// Package: model
+
+package model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Every window of the sliding, re-anchored backtest against a direct
+ * replay of that window alone.
+ */
+class RollingBacktestTest {
+
+    private static final double RELATIVE = 1e-9;
+
+    @Test
+    void depletionMatchesDirectReplayOfEveryWindow() {
+        SplittableRandom random = new SplittableRandom(11);
+        double[] returns = history(random, 500);
+        for (int window : new int[] {1, 7, 30, 500}) {
+            double balance = 1_000_000.0;
+            double withdrawal = 70_000.0;       // lasts some windows, not others
+            RollingBacktest.BacktestResult result = RollingBacktest.depletion(balance, withdrawal, returns, window);
+            assertEquals(returns.length - window + 1, result.getWindows());
+
+            int successes = 0;
+            int depleted = 0;
+            for (int start = 0; start < result.getWindows(); start++) {
+                // finallyRetired-style loop, carried on past depletion to get the shortfall
+                double b = balance;
+                boolean ranOut = false;
+                for (int k = start; k < start + window; k++) {
+                    b = b * (1.0 + returns[k]) - withdrawal;
+                    ranOut |= b <= 0.0;
+                }
+                double actual = result.getEndingBalances()[start];
+                int s = start;
+                int w = window;
+                assertEquals(b, actual, RELATIVE * Math.max(balance, Math.abs(b)),
+                        () -> "window " + w + " starting at " + s);
+                assertEquals(!ranOut, actual > 0.0, () -> "window " + w + " starting at " + s);
+                if (ranOut) {
+                    depleted++;
+                } else {
+                    successes++;
+                }
+            }
+            assertEquals(successes, result.getSuccesses());
+            if (window == 30) {
+                assertTrue(successes > 0 && depleted > 0, "history should exercise both outcomes");
+            }
+        }
+    }
+
+    @Test
+    void growthMatchesVariableInvestorOfEveryWindow() {
+        double[] returns = history(new SplittableRandom(12), 300);
+        int window = 25;
+        double[] endings = RollingBacktest.growth(10_000.0, returns, window);
+        for (int start = 0; start < endings.length; start++) {
+            double expected = RetirementSimulator.variableInvestor(10_000.0,
+                    Arrays.copyOfRange(returns, start, start + window));
+            assertEquals(expected, endings[start], RELATIVE * expected);
+        }
+    }
+
+    // Yearly returns between -30% and +35%, with a few bad stretches
+    private static double[] history(SplittableRandom random, int periods) {
+        double[] returns = new double[periods];
+        for (int i = 0; i < periods; i++) {
+            returns[i] = (i / 40) % 3 == 1
+                    ? random.nextDouble(-0.30, 0.05)
+                    : random.nextDouble(-0.10, 0.35);
+        }
+        return returns;
+    }
+}
@@ -0,0 +1,58 @@
+// Project: Retirement Simulator
+// Package: model
+
+package model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * The early-stopped search must give the same withdrawal as a plain
+ * bisection that judges every candidate on the whole sample.
+ */
+class SafeWithdrawalOptimizerTest {
+
+    @Test
+    void matchesFullSampleSearch() {
+        // More paths than one round, so early stopping kicks in
+        SafeWithdrawalOptimizer optimizer = new SafeWithdrawalOptimizer(0.05, 0.15, 30, 50_000, 7L);
+        for (double target : new double[] {0.5, 0.9, 0.95, 0.99}) {
+            SafeWithdrawalOptimizer.Result result = optimizer.optimize(1_000_000.0, target);
+            double withdrawal = result.getWithdrawal();
+
+            assertTrue(optimizer.successRate(1_000_000.0, withdrawal) >= target, "target " + target);
+            assertTrue(optimizer.successRate(1_000_000.0, withdrawal + 0.01) < target, "target " + target);
+            assertEquals(fullSampleSearch(optimizer, 1_000_000.0, target), withdrawal, "target " + target);
+            assertEquals(optimizer.successRate(1_000_000.0, withdrawal), result.getSuccessRate());
+        }
+    }
+
+    @Test
+    void certainTargetNeedsEveryScenario() {
+        SafeWithdrawalOptimizer optimizer = new SafeWithdrawalOptimizer(0.04, 0.2, 25, 20_000, 3L);
+        SafeWithdrawalOptimizer.Result result = optimizer.optimize(500_000.0, 1.0);
+        assertEquals(1.0, result.getSuccessRate());
+        assertEquals(fullSampleSearch(optimizer, 500_000.0, 1.0), result.getWithdrawal());
+    }
+
+    // Largest whole-cent withdrawal meeting the target, by bisection on successRate
+    private static double fullSampleSearch(SafeWithdrawalOptimizer optimizer, double balance, double target) {
+        long good = 0;
+        long bad = 1;
+        while (optimizer.successRate(balance, bad / 100.0) >= target) {
+            good = bad;
+            bad *= 2;
+        }
+        while (bad - good > 1) {
+            long mid = good + (bad - good) / 2;
+            if (optimizer.successRate(balance, mid / 100.0) >= target) {
+                good = mid;
+            } else {
+                bad = mid;
+            }
+        }
+        return good / 100.0;
+    }
+}
@@ -0,0 +1,117 @@
+// Project: Retirement Simulator
+// Package: model
+
+package model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Every partial derivative against a central finite difference of the
+ * {@link RetirementSimulator} function it differentiates. Years are whole
+ * numbers, so the horizon derivative (that of the continuous extension) is
+ * compared with differences over whole years at a looser tolerance.
+ */
+class SensitivityAnalyzerTest {
+
+    // Relative tolerances: smooth inputs, then the one-year step in the horizon
+    private static final double SMOOTH = 1e-4;
+    private static final double YEARLY = 2e-3;
+
+    private static final double[] RATES = {-0.03, 0.0001, 0.05, 0.12};
+
+    @Test
+    void fixedInvestorPartials() {
+        for (double rate : RATES) {
+            double p = 25_000.0;
+            int n = 30;
+            SensitivityAnalyzer.Sensitivity s = SensitivityAnalyzer.fixedInvestor(p, rate, n);
+            assertEquals(RetirementSimulator.fixedInvestor(p, rate, n), s.getValue(), 0.0);
+            assertClose(central(h -> RetirementSimulator.fixedInvestor(p + h, rate, n), 1.0),
+                    s.getDPrincipal(), SMOOTH);
+            assertClose(central(h -> RetirementSimulator.fixedInvestor(p, rate + h, n), 1e-6),
+                    s.getDRate(), SMOOTH);
+            // P(1 + r)^n is exactly exponential in n: the one-year difference is dYears * sinh(L) / L
+            double l = Math.log1p(rate);
+            double scale = (l == 0.0) ? 1.0 : Math.sinh(l) / l;
+            assertClose((RetirementSimulator.fixedInvestor(p, rate, n + 1)
+                    - RetirementSimulator.fixedInvestor(p, rate, n - 1)) / 2.0, s.getDYears() * scale, SMOOTH);
+        }
+    }
+
+    @Test
+    void variableInvestorPartials() {
+        double p = 10_000.0;
+        double[] rates = {0.07, -0.12, 0.21, 0.03, 0.0, 0.09, -0.04, 0.15};
+        SensitivityAnalyzer.Sensitivity s = SensitivityAnalyzer.variableInvestor(p, rates);
+        assertEquals(RetirementSimulator.variableInvestor(p, rates), s.getValue(), 0.0);
+        assertClose(central(h -> RetirementSimulator.variableInvestor(p + h, rates), 1.0),
+                s.getDPrincipal(), SMOOTH);
+        assertClose(central(h -> RetirementSimulator.variableInvestor(p, shifted(rates, -1, h)), 1e-6),
+                s.getDRate(), SMOOTH);
+        double[] dRates = s.getDRates();
+        for (int i = 0; i < rates.length; i++) {
+            int year = i;
+            assertClose(central(h -> RetirementSimulator.variableInvestor(p, shifted(rates, year, h)), 1e-6),
+                    dRates[i], SMOOTH);
+        }
+        // Extending the schedule by a fraction of a year at its final rate
+        double last = rates[rates.length - 1];
+        assertClose(s.getValue() * Math.log1p(last), s.getDYears(), 0.0);
+    }
+
+    @Test
+    void maximumExpensedPartials() {
+        for (double rate : RATES) {
+            double p = 750_000.0;
+            int n = 30;
+            SensitivityAnalyzer.Sensitivity s = SensitivityAnalyzer.maximumExpensed(p, rate, n);
+            assertEquals(RetirementSimulator.maximumExpensed(p, rate, n), s.getValue(), 0.0);
+            // Steps large enough that rounding to cents does not matter
+            assertClose(central(h -> RetirementSimulator.maximumExpensed(p + h, rate, n), 5_000.0),
+                    s.getDPrincipal(), SMOOTH);
+            assertClose(central(h -> RetirementSimulator.maximumExpensed(p, rate + h, n), 1e-3),
+                    s.getDRate(), SMOOTH);
+            // dE/dn = (E - W/r) ln(1 + r) at the root, through the implicit function theorem
+            // (fourth-order difference, so the one-year step barely matters)
+            assertClose((8.0 * (RetirementSimulator.maximumExpensed(p, rate, n + 1)
+                            - RetirementSimulator.maximumExpensed(p, rate, n - 1))
+                    - (RetirementSimulator.maximumExpensed(p, rate, n + 2)
+                            - RetirementSimulator.maximumExpensed(p, rate, n - 2))) / 12.0,
+                    s.getDYears(), YEARLY);
+        }
+    }
+
+    @Test
+    void emptyPrincipalHasFlatPartials() {
+        SensitivityAnalyzer.Sensitivity s = SensitivityAnalyzer.maximumExpensed(0.0, 0.05, 30);
+        assertEquals(0.0, s.getValue(), 0.0);
+        assertEquals(0.0, s.getDPrincipal(), 0.0);
+        assertEquals(0.0, s.getDRate(), 0.0);
+        assertEquals(0.0, s.getDYears(), 0.0);
+    }
+
+    private interface Function {
+        double at(double h);
+    }
+
+    private static double central(Function f, double h) {
+        return (f.at(h) - f.at(-h)) / (2.0 * h);
+    }
+
+    // Rates with year i bumped by h, or every year when i is -1
+    private static double[] shifted(double[] rates, int i, double h) {
+        double[] copy = rates.clone();
+        for (int k = 0; k < copy.length; k++) {
+            if (i < 0 || k == i) {
+                copy[k] += h;
+            }
+        }
+        return copy;
+    }
+
+    private static void assertClose(double expected, double actual, double relative) {
+        assertEquals(expected, actual, relative * Math.max(1e-12, Math.abs(expected)));
+    }
+}
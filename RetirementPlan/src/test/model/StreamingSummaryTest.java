@@ -0,0 +1,186 @@
+// Project: Retirement Simulator
+// Package: model
+
+package model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Percentile accuracy of {@link StreamingSummary}: every estimate for
+ * P1..P99 must fall within 0.5% in rank of the exact outcomes sorted with
+ * {@link Arrays#sort}, as its class comment promises.
+ */
+class StreamingSummaryTest {
+
+    private static final double MAX_RANK_ERROR = 0.005;
+
+    private static final int PATHS = 200_000;
+    private static final long SEED = 42;
+
+    @Test
+    void summarizeMatchesSortedOutcomes() {
+        StreamingSummary summary = MonteCarloSimulator.summarize(1_000_000.0, 0.07, 0.15, 30, PATHS, SEED);
+        double[] exact = exactOutcomes(1_000_000.0, 0.0, 0.07, 0.15, 30, PATHS, SEED, null);
+        assertSameRun(exact, summary);
+        assertPercentilesWithinRank(exact, summary);
+    }
+
+    @Test
+    void summarizeRetirementMatchesSortedOutcomes() {
+        int[] depletedIn = new int[PATHS];
+        StreamingSummary summary = MonteCarloSimulator.summarizeRetirement(
+                1_000_000.0, 60_000.0, 0.06, 0.12, 40, PATHS, SEED);
+        double[] exact = exactOutcomes(1_000_000.0, 60_000.0, 0.06, 0.12, 40, PATHS, SEED, depletedIn);
+        assertSameRun(exact, summary);
+        assertPercentilesWithinRank(exact, summary);
+
+        // Depletion probabilities are counted, not estimated
+        for (int years = 0; years <= 41; years++) {
+            long hits = 0;
+            for (int year : depletedIn) {
+                if (year <= years) {
+                    hits++;
+                }
+            }
+            assertEquals((double) hits / PATHS, summary.probabilityDepletedWithin(years), 0.0);
+        }
+    }
+
+    @Test
+    void mergedSummariesMatchSortedOutcomes() {
+        SplittableRandom random = new SplittableRandom(7);
+        int parts = 37;                         // uneven sizes, some smaller than the buffer
+        double[] all = new double[0];
+        StreamingSummary chained = new StreamingSummary();
+        StreamingSummary[] leaves = new StreamingSummary[parts];
+        for (int i = 0; i < parts; i++) {
+            double[] values = new double[random.nextInt(1, 20_000)];
+            for (int j = 0; j < values.length; j++) {
+                // Skewed, with a shifted mode per part so merges interleave
+                values[j] = i * 1_000.0 + Math.exp(random.nextGaussian() * 1.5) * 10_000.0;
+            }
+            StreamingSummary part = new StreamingSummary();
+            StreamingSummary leaf = new StreamingSummary();
+            for (double value : values) {
+                part.add(value);
+                leaf.add(value);
+            }
+            chained.merge(part);
+            leaves[i] = leaf;
+            int offset = all.length;
+            all = Arrays.copyOf(all, offset + values.length);
+            System.arraycopy(values, 0, all, offset, values.length);
+        }
+        StreamingSummary tree = mergePairwise(leaves, 0, parts);
+
+        Arrays.sort(all);
+        assertSameRun(all, chained);
+        assertSameRun(all, tree);
+        assertPercentilesWithinRank(all, chained);
+        assertPercentilesWithinRank(all, tree);
+    }
+
+    private static StreamingSummary mergePairwise(StreamingSummary[] parts, int from, int to) {
+        if (to - from == 1) {
+            return parts[from];
+        }
+        int mid = (from + to) >>> 1;
+        return mergePairwise(parts, from, mid).merge(mergePairwise(parts, mid, to));
+    }
+
+    // Count, min and max are exact, which also confirms the replay below reproduces the run
+    private static void assertSameRun(double[] sorted, StreamingSummary summary) {
+        assertEquals(sorted.length, summary.getCount());
+        assertEquals(sorted[0], summary.getMin(), 0.0);
+        assertEquals(sorted[sorted.length - 1], summary.getMax(), 0.0);
+    }
+
+    private static void assertPercentilesWithinRank(double[] sorted, StreamingSummary summary) {
+        int n = sorted.length;
+        for (int p = 1; p <= 99; p++) {
+            double estimate = summary.percentile(p);
+            // Ties (e.g. every depleted path ending at 0) give a range of valid ranks
+            double below = (double) countBelow(sorted, estimate, false) / n;
+            double atOrBelow = (double) countBelow(sorted, estimate, true) / n;
+            double target = p / 100.0;
+            double error = Math.max(0.0, Math.max(below - target, target - atOrBelow));
+            int percent = p;
+            assertTrue(error <= MAX_RANK_ERROR,
+                    () -> "P" + percent + " = " + estimate + " is off by " + error + " in rank");
+        }
+    }
+
+    // Number of sorted values < value, or <= value when inclusive
+    private static int countBelow(double[] sorted, double value, boolean inclusive) {
+        int lo = 0;
+        int hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] < value || (inclusive && sorted[mid] == value)) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Replays a summarize / summarizeRetirement run path by path: same
+     * split tree, same random stream per block, same arithmetic. Returns
+     * the sorted ending balances and, if asked, each path's depletion year.
+     */
+    private static double[] exactOutcomes(double balance, double withdrawal, double meanRate,
+                                          double volatility, int years, int paths, long seed,
+                                          int[] depletedIn) {
+        double[] outcomes = new double[paths];
+        replay(new SplittableRandom(seed), 0, MonteCarloSimulator.blockCount(paths), balance, withdrawal,
+                MonteCarloSimulator.logMean(meanRate, volatility),
+                MonteCarloSimulator.logSigma(meanRate, volatility), years, outcomes, depletedIn);
+        Arrays.sort(outcomes);
+        return outcomes;
+    }
+
+    private static void replay(SplittableRandom random, int fromBlock, int toBlock, double balance,
+                               double withdrawal, double mu, double sigma, int years,
+                               double[] outcomes, int[] depletedIn) {
+        if (toBlock - fromBlock > 1) {
+            int mid = (fromBlock + toBlock) >>> 1;
+            SplittableRandom left = random.split();
+            SplittableRandom right = random.split();
+            replay(left, fromBlock, mid, balance, withdrawal, mu, sigma, years, outcomes, depletedIn);
+            replay(right, mid, toBlock, balance, withdrawal, mu, sigma, years, outcomes, depletedIn);
+            return;
+        }
+        int start = fromBlock * MonteCarloSimulator.BLOCK_PATHS;
+        int end = Math.min(start + MonteCarloSimulator.BLOCK_PATHS, outcomes.length);
+        for (int p = start; p < end; p++) {
+            if (withdrawal == 0.0) {
+                double logGrowth = 0.0;
+                for (int y = 0; y < years; y++) {
+                    logGrowth += mu + sigma * random.nextGaussian();
+                }
+                outcomes[p] = balance * Math.exp(logGrowth);
+                continue;
+            }
+            double b = balance;
+            int year = AnalyticSimulator.NEVER_DEPLETES;
+            for (int y = 1; y <= years; y++) {
+                b = b * Math.exp(mu + sigma * random.nextGaussian()) - withdrawal;
+                if (b <= 0.0) {
+                    year = y;
+                    b = 0.0;
+                    break;
+                }
+            }
+            outcomes[p] = b;
+            depletedIn[p] = year;
+        }
+    }
+}
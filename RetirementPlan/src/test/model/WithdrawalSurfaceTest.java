@@ -0,0 +1,46 @@
+// Project: Retirement Simulator
+// Package: model
+
+package model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Loading surface files: short or cut-off files fail with the documented
+ * exception instead of an index error from the header reads.
+ */
+class WithdrawalSurfaceTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void rejectsFilesShorterThanTheHeader() throws IOException {
+        for (int size : new int[] {0, 5, 31}) {
+            Path file = dir.resolve("short-" + size + ".wsrf");
+            Files.write(file, new byte[size]);
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                    () -> WithdrawalSurface.load(file));
+            assertEquals("Withdrawal surface file is truncated.", e.getMessage());
+        }
+    }
+
+    @Test
+    void rejectsTruncatedBody() throws IOException {
+        Path full = dir.resolve("full.wsrf");
+        WithdrawalSurface.build(0.0, 0.10, 0.01, 10).save(full);
+        byte[] bytes = Files.readAllBytes(full);
+        Path cut = dir.resolve("cut.wsrf");
+        Files.write(cut, Arrays.copyOf(bytes, bytes.length - 8));
+        assertThrows(IllegalArgumentException.class, () -> WithdrawalSurface.load(cut));
+    }
+}
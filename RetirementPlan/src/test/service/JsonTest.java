@@ -0,0 +1,39 @@
+// Project: Retirement Simulator
+// Package: service
+
+package service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Nesting limit of the request parser: hostile bodies must fail as bad
+ * input (a 400), not with a StackOverflowError.
+ */
+class JsonTest {
+
+    @Test
+    void acceptsNestingUpToTheLimit() {
+        String text = "[".repeat(Json.MAX_DEPTH) + "1" + "]".repeat(Json.MAX_DEPTH);
+        Object value = Json.parse(text);
+        for (int i = 1; i < Json.MAX_DEPTH; i++) {
+            value = ((List<?>) value).get(0);
+        }
+        assertEquals(List.of(1.0), value);
+    }
+
+    @Test
+    void rejectsDeeperNesting() {
+        String text = "{\"a\":".repeat(Json.MAX_DEPTH) + "[1]" + "}".repeat(Json.MAX_DEPTH);
+        assertThrows(IllegalArgumentException.class, () -> Json.parse(text));
+    }
+
+    @Test
+    void rejectsUnterminatedNestingWithoutOverflow() {
+        assertThrows(IllegalArgumentException.class, () -> Json.parse("[".repeat(1_000_000)));
+    }
+}
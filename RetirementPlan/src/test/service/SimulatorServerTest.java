@@ -0,0 +1,70 @@
+// Project: Retirement Simulator
+// Package: service
+
+package service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Infinite results over HTTP: "never" for a finallyRetired balance that
+ * never runs out, null for an overflowing growth result.
+ */
+class SimulatorServerTest {
+
+    private SimulatorServer server;
+    private HttpClient client;
+
+    @BeforeEach
+    void start() throws IOException {
+        server = SimulatorServer.start(0);
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void stop() {
+        server.close();
+    }
+
+    @Test
+    void neverDepletingBalanceAnswersNever() throws Exception {
+        assertEquals("{\"result\":\"never\"}",
+                post("finallyRetired", "{\"balance\": 500000, \"withdrawal\": 20000, \"rate\": 0.05}"));
+    }
+
+    @Test
+    void overflowingGrowthAnswersNull() throws Exception {
+        assertEquals("{\"result\":null}",
+                post("fixedInvestor", "{\"principal\": 10000, \"rate\": 10, \"years\": 400}"));
+        assertEquals("{\"result\":null}",
+                post("variableInvestor", "{\"principal\": 1e300, \"rates\": [10, 10, 10, 10, 10, 10, 10, 10, 10, 10]}"));
+    }
+
+    @Test
+    void batchTellsTheTwoApart() throws Exception {
+        assertEquals("{\"results\":[{\"result\":null},{\"result\":\"never\"}]}",
+                post("batch", "{\"scenarios\": ["
+                        + "{\"function\": \"fixedInvestor\", \"principal\": 10000, \"rate\": 10, \"years\": 400},"
+                        + "{\"function\": \"finallyRetired\", \"balance\": 500000, \"withdrawal\": 20000, \"rate\": 0.05}"
+                        + "]}"));
+    }
+
+    private String post(String endpoint, String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + server.getPort() + "/" + endpoint))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode(), response.body());
+        return response.body();
+    }
+}
@@ -0,0 +1,110 @@
+// Project: Retirement Simulator
+// Package: shard
+
+package shard;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import model.MonteCarloSimulator;
+import model.StreamingSummary;
+
+/**
+ * Retry, give-up and timeout paths of {@link ShardCoordinator}, driven by a
+ * launcher that swaps chosen attempts for workers that fail. Every run
+ * that succeeds must equal the single-process summary bit for bit.
+ */
+class ShardCoordinatorTest {
+
+    private static final double BALANCE = 1_000_000.0;
+    private static final double WITHDRAWAL = 45_000.0;
+    private static final double MEAN = 0.05;
+    private static final double VOLATILITY = 0.12;
+    private static final int YEARS = 30;
+    private static final int PATHS = 20_000;
+    private static final long SEED = 42;
+
+    private static final long TIMEOUT_MILLIS = 60_000;
+
+    // Worker arguments counted from the end of the command
+    private static final int PATHS_FROM_END = 4;
+    private static final int FROM_BLOCK_FROM_END = 2;
+    private static final int TO_BLOCK_FROM_END = 1;
+
+    @Test
+    void crashedAttemptIsRetried() throws Exception {
+        ShardCoordinator coordinator = new ShardCoordinator(2, 3, TIMEOUT_MILLIS, List.of(),
+                (command, shard, attempt) -> (shard == 1 && attempt == 1)
+                        ? start(usageError(command))
+                        : start(command));
+        StreamingSummary sharded = coordinator.summarizeRetirement(
+                BALANCE, WITHDRAWAL, MEAN, VOLATILITY, YEARS, PATHS, SEED, 4);
+        StreamingSummary local = MonteCarloSimulator.summarizeRetirement(
+                BALANCE, WITHDRAWAL, MEAN, VOLATILITY, YEARS, PATHS, SEED);
+        assertArrayEquals(bytes(local), bytes(sharded));
+    }
+
+    @Test
+    void shardFailsAfterMaxAttempts() {
+        ShardCoordinator coordinator = new ShardCoordinator(2, 2, TIMEOUT_MILLIS, List.of(),
+                (command, shard, attempt) -> (shard == 0) ? start(usageError(command)) : start(command));
+        IOException e = assertThrows(IOException.class,
+                () -> coordinator.summarize(BALANCE, MEAN, VOLATILITY, YEARS, PATHS, SEED, 2));
+        assertTrue(e.getMessage().contains("Shard 0 failed 2 times"), e.getMessage());
+        assertTrue(e.getMessage().contains("exit code " + ShardWorker.EXIT_USAGE), e.getMessage());
+    }
+
+    @Test
+    void overdueAttemptIsKilledAndRetried() throws Exception {
+        ShardCoordinator coordinator = new ShardCoordinator(1, 2, 5_000, List.of(),
+                (command, shard, attempt) -> (attempt == 1) ? start(endless(command)) : start(command));
+        StreamingSummary sharded = coordinator.summarize(BALANCE, MEAN, VOLATILITY, YEARS, PATHS, SEED, 1);
+        StreamingSummary local = MonteCarloSimulator.summarize(BALANCE, MEAN, VOLATILITY, YEARS, PATHS, SEED);
+        assertArrayEquals(bytes(local), bytes(sharded));
+    }
+
+    @Test
+    void rejectedInputsFailAtOnce() {
+        ShardCoordinator coordinator = new ShardCoordinator(1, 3, TIMEOUT_MILLIS, List.of());
+        assertThrows(IllegalArgumentException.class,
+                () -> coordinator.summarize(BALANCE, MEAN, -0.1, YEARS, PATHS, SEED, 2));
+    }
+
+    private static Process start(List<String> command) throws IOException {
+        return new ProcessBuilder(command)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+    }
+
+    // The real worker with an argument missing: exits with a usage error before replying
+    private static List<String> usageError(List<String> command) {
+        return command.subList(0, command.size() - 1);
+    }
+
+    // The real worker on the whole tree of an enormous run: never finishes in time
+    private static List<String> endless(List<String> command) {
+        List<String> changed = new ArrayList<>(command);
+        int size = changed.size();
+        changed.set(size - PATHS_FROM_END, Integer.toString(Integer.MAX_VALUE));
+        changed.set(size - FROM_BLOCK_FROM_END, "0");
+        changed.set(size - TO_BLOCK_FROM_END,
+                Integer.toString(MonteCarloSimulator.shardBounds(Integer.MAX_VALUE, 1)[1]));
+        return changed;
+    }
+
+    private static byte[] bytes(StreamingSummary summary) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        summary.writeTo(new DataOutputStream(buffer));
+        return buffer.toByteArray();
+    }
+}
@@ -0,0 +1,92 @@
+// Project: Retirement Simulator
+// Package: benchmark
+
+package benchmark;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.BatchSimulator;
+import model.RetirementSimulator;
+
+/**
+ * {@link BatchSimulator} on its SIMD and scalar paths, and the same
+ * scenarios through one {@link RetirementSimulator} call each. Scores are
+ * per scenario. The forks add the incubator module so both paths can run;
+ * {@code vectorized=true} silently falls back to scalar without it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Benchmark)
+public class BatchBenchmark {
+
+    private static final int SCENARIOS = 100_000;
+
+    @Param({"false", "true"})
+    public boolean vectorized;
+
+    private final double[] principals = new double[SCENARIOS];
+    private final double[] rates = new double[SCENARIOS];
+    private final int[] years = new int[SCENARIOS];
+    private final double[] out = new double[SCENARIOS];
+
+    @Setup
+    public void setUp() {
+        BatchSimulator.setVectorized(vectorized);
+        // Fixed seed keeps the scenarios identical between runs
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < SCENARIOS; i++) {
+            principals[i] = random.nextDouble(10_000.0, 2_000_000.0);
+            rates[i] = random.nextDouble(-0.02, 0.10);
+            years[i] = random.nextInt(20, 41);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SCENARIOS)
+    public double[] fixedInvestorBatch() {
+        BatchSimulator.fixedInvestor(principals, rates, years, out);
+        return out;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SCENARIOS)
+    public double[] fixedInvestorLoop() {
+        for (int i = 0; i < SCENARIOS; i++) {
+            out[i] = RetirementSimulator.fixedInvestor(principals[i], rates[i], years[i]);
+        }
+        return out;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SCENARIOS)
+    public double[] maximumExpensedBatch() {
+        BatchSimulator.maximumExpensed(principals, rates, years, out);
+        return out;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SCENARIOS)
+    public double[] maximumExpensedLoop() {
+        for (int i = 0; i < SCENARIOS; i++) {
+            out[i] = RetirementSimulator.maximumExpensed(principals[i], rates[i], years[i]);
+        }
+        return out;
+    }
+}
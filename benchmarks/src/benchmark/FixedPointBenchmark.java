@@ -0,0 +1,106 @@
+// Project: Retirement Simulator
+// Package: benchmark
+
+package benchmark;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.AnalyticSimulator;
+import model.CentsSimulator;
+import model.RetirementSimulator;
+
+/**
+ * {@link CentsSimulator} against the double-based {@link RetirementSimulator}
+ * on the same inputs. Each pair (e.g. {@code fixedInvestorDouble} and
+ * {@code fixedInvestorCents}) does the same number of periods, so the ratio
+ * of their scores is the price of exact per-period cent rounding.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class FixedPointBenchmark {
+
+    @Param({"30", "1000"})
+    public int periods;
+
+    @Param({"0.0004"})
+    public double rate;
+
+    private double principal;
+    private double withdrawal;
+    private double[] ratesList;
+
+    private long principalCents;
+    private long withdrawalCents;
+
+    @Setup
+    public void setUp() {
+        principal = 500_000.0;
+        // Slightly above the annuity payment, so depletion takes ~periods steps
+        withdrawal = AnalyticSimulator.maximumExpensed(principal, rate, periods) * 1.0001;
+        principalCents = CentsSimulator.toCents(principal);
+        withdrawalCents = CentsSimulator.toCents(withdrawal);
+
+        SplittableRandom random = new SplittableRandom(42);
+        ratesList = new double[periods];
+        for (int i = 0; i < periods; i++) {
+            ratesList[i] = rate + random.nextDouble(-0.001, 0.001);
+        }
+    }
+
+    @Benchmark
+    public double fixedInvestorDouble() {
+        return RetirementSimulator.fixedInvestor(principal, rate, periods);
+    }
+
+    @Benchmark
+    public long fixedInvestorCents() {
+        return CentsSimulator.fixedInvestor(principalCents, rate, periods);
+    }
+
+    @Benchmark
+    public double variableInvestorDouble() {
+        return RetirementSimulator.variableInvestor(principal, ratesList);
+    }
+
+    @Benchmark
+    public long variableInvestorCents() {
+        return CentsSimulator.variableInvestor(principalCents, ratesList);
+    }
+
+    @Benchmark
+    public int finallyRetiredDouble() {
+        return RetirementSimulator.finallyRetired(principal, withdrawal, rate);
+    }
+
+    @Benchmark
+    public int finallyRetiredCents() {
+        return CentsSimulator.finallyRetired(principalCents, withdrawalCents, rate);
+    }
+
+    @Benchmark
+    public double maximumExpensedDouble() {
+        return RetirementSimulator.maximumExpensed(principal, rate, periods);
+    }
+
+    @Benchmark
+    public long maximumExpensedCents() {
+        return CentsSimulator.maximumExpensed(principalCents, rate, periods);
+    }
+}
@@ -0,0 +1,72 @@
+// Project: Retirement Simulator
+// Package: benchmark
+
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import metrics.InstrumentedSimulator;
+import model.RetirementSimulator;
+
+/**
+ * Cost of {@link InstrumentedSimulator} over calling
+ * {@link RetirementSimulator} directly. With {@code instrumented=false} the
+ * wrapped and direct scores should be indistinguishable; with {@code true}
+ * the difference is the price of counters, histogram and the JFR event
+ * (add {@code -jvmArgsAppend -XX:StartFlightRecording} to include event
+ * commits). A short horizon keeps the fixed overhead visible.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class InstrumentationBenchmark {
+
+    @Param({"false", "true"})
+    public boolean instrumented;
+
+    @Param({"30"})
+    public int periods;
+
+    private final double principal = 500_000.0;
+    private final double rate = 0.05;
+
+    @Setup
+    public void setUp() {
+        InstrumentedSimulator.setEnabled(instrumented);
+    }
+
+    @Benchmark
+    public double fixedInvestorDirect() {
+        return RetirementSimulator.fixedInvestor(principal, rate, periods);
+    }
+
+    @Benchmark
+    public double fixedInvestorWrapped() {
+        return InstrumentedSimulator.fixedInvestor(principal, rate, periods);
+    }
+
+    @Benchmark
+    public double maximumExpensedDirect() {
+        return RetirementSimulator.maximumExpensed(principal, rate, periods);
+    }
+
+    @Benchmark
+    public double maximumExpensedWrapped() {
+        return InstrumentedSimulator.maximumExpensed(principal, rate, periods);
+    }
+}
@@ -0,0 +1,79 @@
+// Project: Retirement Simulator
+// Package: benchmark
+
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.MonteCarloSimulator;
+import model.Portfolio;
+
+/**
+ * Multi-asset {@link Portfolio} simulation against the single-asset
+ * {@link MonteCarloSimulator} on the same number of paths and years, to
+ * keep the cost per asset-year in view. A three-asset portfolio needs
+ * three normals per path-year, so about 3x the single-asset time is the floor.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PortfolioBenchmark {
+
+    @Param({"100000"})
+    public int paths;
+
+    @Param({"30"})
+    public int years;
+
+    @Param({"0", "1"})
+    public int rebalanceYears;
+
+    private Portfolio singleAsset;
+    private Portfolio threeAssets;
+
+    @Setup
+    public void setUp() {
+        singleAsset = new Portfolio(new double[] {1.0}, new double[] {0.07}, new double[] {0.15},
+                new double[][] {{1.0}});
+        // Stocks, bonds, cash
+        threeAssets = new Portfolio(
+                new double[] {0.6, 0.3, 0.1},
+                new double[] {0.08, 0.04, 0.02},
+                new double[] {0.18, 0.07, 0.01},
+                new double[][] {
+                    {1.0, 0.2, 0.0},
+                    {0.2, 1.0, 0.3},
+                    {0.0, 0.3, 1.0}
+                });
+    }
+
+    @Benchmark
+    public double monteCarloSingleAsset() {
+        return MonteCarloSimulator.simulate(100_000.0, 0.07, 0.15, years, paths, 42).getMean();
+    }
+
+    @Benchmark
+    public double portfolioOneAsset() {
+        return singleAsset.simulate(100_000.0, rebalanceYears, years, paths, 42).getMean();
+    }
+
+    @Benchmark
+    public double portfolioThreeAssets() {
+        return threeAssets.simulate(100_000.0, rebalanceYears, years, paths, 42).getMean();
+    }
+}
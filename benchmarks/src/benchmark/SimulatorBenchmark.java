@@ -0,0 +1,110 @@
+// Project: Retirement Simulator
+// Package: benchmark
+
+package benchmark;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import maxexpensed.Finance;
+import model.AnalyticSimulator;
+import model.RetirementSimulator;
+import model.WithdrawalSolver;
+
+/**
+ * Benchmarks for the four simulator functions across horizons from a
+ * typical 30-year plan up to 100,000 periods (e.g., daily data).
+ *
+ * The default per-period rate is small enough that (1 + rate)^100000 stays
+ * finite, so every horizon computes real numbers instead of Infinity.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class SimulatorBenchmark {
+
+    @Param({"30", "1000", "100000"})
+    public int periods;
+
+    @Param({"0.0004"})
+    public double rate;
+
+    private double principal;
+    private double withdrawal;
+    private double[] ratesList;
+
+    @Setup
+    public void setUp() {
+        principal = 500_000.0;
+        // Slightly above the annuity payment, so depletion takes ~periods steps
+        withdrawal = AnalyticSimulator.maximumExpensed(principal, rate, periods) * 1.0001;
+
+        // Fixed seed keeps the variable-rate schedule identical between runs
+        SplittableRandom random = new SplittableRandom(42);
+        ratesList = new double[periods];
+        for (int i = 0; i < periods; i++) {
+            ratesList[i] = rate + random.nextDouble(-0.001, 0.001);
+        }
+    }
+
+    @Benchmark
+    public double fixedInvestor() {
+        return RetirementSimulator.fixedInvestor(principal, rate, periods);
+    }
+
+    @Benchmark
+    public double fixedInvestorAnalytic() {
+        return AnalyticSimulator.fixedInvestor(principal, rate, periods);
+    }
+
+    @Benchmark
+    public double variableInvestor() {
+        return RetirementSimulator.variableInvestor(principal, ratesList);
+    }
+
+    @Benchmark
+    public int finallyRetired() {
+        return RetirementSimulator.finallyRetired(principal, withdrawal, rate);
+    }
+
+    @Benchmark
+    public int finallyRetiredAnalytic() {
+        return AnalyticSimulator.finallyRetired(principal, withdrawal, rate);
+    }
+
+    @Benchmark
+    public double maximumExpensed() {
+        return RetirementSimulator.maximumExpensed(principal, rate, periods);
+    }
+
+    @Benchmark
+    public double maximumExpensedFinance() {
+        return Finance.maximumExpensed(principal, rate, periods);
+    }
+
+    @Benchmark
+    public double maximumExpensedAnalytic() {
+        return AnalyticSimulator.maximumExpensed(principal, rate, periods);
+    }
+
+    // Baseline: the bisection both maximumExpensed copies used before WithdrawalSolver
+    @Benchmark
+    public double maximumExpensedBisection() {
+        return WithdrawalSolver.bisect(principal, rate, periods).getWithdrawal();
+    }
+}